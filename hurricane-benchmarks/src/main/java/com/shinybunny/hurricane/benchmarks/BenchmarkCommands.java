@@ -0,0 +1,52 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.User;
+import com.shinybunny.hurricane.annotations.*;
+
+/**
+ * Commands using the common annotations, registered by the benchmarks. None of them print anything.
+ */
+public class BenchmarkCommands {
+
+    @Command
+    @Feedback(success = "Gave ${amount} ${item} to ${target.getName()}", fail = "Could not give ${item} to ${target.getName()}")
+    public static boolean give(User target, @Options({"apple","bread","sword","shield","bow","arrow"}) String item, @Range(min = 1, max = 64) @Default(integer = 1) int amount) {
+        return true;
+    }
+
+    @Command
+    public static int substring(String str, int start, @Default(computed = "str.length()") int end) {
+        return end - start;
+    }
+
+    @Command
+    public static int pad(String str, @Default(integer = 10) int width) {
+        return width - str.length();
+    }
+
+    @Command
+    public static double teleport(double x, double y, double z) {
+        return x + y + z;
+    }
+
+    @Command
+    public static class Team {
+
+        @Command
+        public static int add(String name, @Default("WHITE") Color color) {
+            return color.ordinal();
+        }
+
+        @Command
+        public static int remove(String name) {
+            return name.length();
+        }
+
+        public enum Color {
+            WHITE,
+            RED,
+            GREEN,
+            BLUE
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler, so every result includes the bytes allocated per operation (<code>gc.alloc.rate.norm</code>).
+ * <p>
+ * Takes the same arguments as the JMH command line, for example <code>java -jar target/benchmarks.jar Parse -p commands=1000</code>.
+ * <p>
+ * The profiler is only added here. Suites started another way, such as from an IDE or with <code>org.openjdk.jmh.Main</code>, need <code>-prof gc</code> to report allocations.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,61 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how parsing scales with the number of registered commands, using {@link GeneratedCommands}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandCountBenchmark {
+
+    @Param({"100","1000","10000","50000"})
+    public int commands;
+
+    private final SilentSender sender = new SilentSender();
+    private Hurricane api;
+    private String first;
+    private String middle;
+    private String last;
+
+    @Setup
+    public void setup() {
+        api = GeneratedCommands.create(commands);
+        first = "cmd0 42 first";
+        middle = "cmd" + commands / 2 + " 42 middle";
+        last = "cmd" + (commands - 1) + " 42 last";
+    }
+
+    @Benchmark
+    public CommandExecutionContext parseFirst() throws CommandParsingException {
+        return api.parse(sender,first);
+    }
+
+    @Benchmark
+    public CommandExecutionContext parseMiddle() throws CommandParsingException {
+        return api.parse(sender,middle);
+    }
+
+    @Benchmark
+    public CommandExecutionContext parseLast() throws CommandParsingException {
+        return api.parse(sender,last);
+    }
+
+    @Benchmark
+    public Object unknownCommand() {
+        try {
+            return api.parse(sender,"cmdx 42 unknown");
+        } catch (CommandParsingException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing commands with omitted arguments, filled by constant and computed {@link com.shinybunny.hurricane.annotations.Default @Default} values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultBenchmark {
+
+    private final SilentSender sender = new SilentSender();
+    private Hurricane api;
+
+    @Setup
+    public void setup() {
+        api = new Hurricane();
+        api.register(BenchmarkCommands.class);
+    }
+
+    @Benchmark
+    public CommandExecutionContext computed() throws CommandParsingException {
+        return api.parse(sender,"substring benchmarking 3");
+    }
+
+    @Benchmark
+    public CommandExecutionContext computedProvided() throws CommandParsingException {
+        return api.parse(sender,"substring benchmarking 3 7");
+    }
+
+    @Benchmark
+    public CommandExecutionContext constant() throws CommandParsingException {
+        return api.parse(sender,"pad benchmarking");
+    }
+
+    @Benchmark
+    public CommandExecutionContext constantEnum() throws CommandParsingException {
+        return api.parse(sender,"team add blue");
+    }
+}
@@ -0,0 +1,58 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandResult;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.util.CommandFailedException;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Hurricane#execute(CommandExecutionContext)} of inputs that were parsed in advance, and of parsing and executing together.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecuteBenchmark {
+
+    private final SilentSender sender = new SilentSender();
+    private Hurricane api;
+    private CommandExecutionContext teleport;
+    private CommandExecutionContext team;
+    private CommandExecutionContext generated;
+
+    @Setup
+    public void setup() throws CommandParsingException {
+        api = new Hurricane();
+        api.register(BenchmarkCommands.class);
+        GeneratedCommands.register(api,100);
+        teleport = api.parse(sender,"teleport 12.5 64 -1034.25");
+        team = api.parse(sender,"team add blue green");
+        generated = api.parse(sender,"cmd50 42 builder");
+    }
+
+    @Benchmark
+    public CommandResult<?> methodCommand() throws CommandParsingException, CommandFailedException {
+        return api.execute(teleport);
+    }
+
+    @Benchmark
+    public CommandResult<?> subCommand() throws CommandParsingException, CommandFailedException {
+        return api.execute(team);
+    }
+
+    @Benchmark
+    public CommandResult<?> builtCommand() throws CommandParsingException, CommandFailedException {
+        return api.execute(generated);
+    }
+
+    @Benchmark
+    public CommandResult<?> parseAndExecute() throws CommandParsingException, CommandFailedException {
+        return api.execute(sender,"teleport 12.5 64 -1034.25");
+    }
+}
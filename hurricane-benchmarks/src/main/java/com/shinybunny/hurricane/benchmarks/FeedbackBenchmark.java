@@ -0,0 +1,53 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandResult;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.util.CommandFailedException;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.MessageTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering {@link com.shinybunny.hurricane.annotations.Feedback @Feedback} messages, directly and as part of executing a command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedbackBenchmark {
+
+    private final SilentSender sender = new SilentSender();
+    private Hurricane api;
+    private CommandExecutionContext give;
+    private MessageTemplate template;
+    private MessageTemplate plain;
+
+    @Setup
+    public void setup() throws CommandParsingException {
+        api = new Hurricane();
+        api.register(BenchmarkCommands.class);
+        give = api.parse(sender,"give player shield 16");
+        template = MessageTemplate.compile("Gave ${amount} ${item} to ${target.getName()}, result: ${result}",true);
+        plain = MessageTemplate.compile("Done!",true);
+    }
+
+    @Benchmark
+    public String render() {
+        return template.render(give,Boolean.TRUE);
+    }
+
+    @Benchmark
+    public String renderWithoutPlaceholders() {
+        return plain.render(give,Boolean.TRUE);
+    }
+
+    @Benchmark
+    public CommandResult<?> executeWithFeedback() throws CommandParsingException, CommandFailedException {
+        return api.execute(give);
+    }
+}
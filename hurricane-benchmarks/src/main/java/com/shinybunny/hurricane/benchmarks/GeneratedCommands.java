@@ -0,0 +1,32 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.CommandResult;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.tree.Argument;
+import com.shinybunny.hurricane.tree.CommandBuilder;
+
+/**
+ * Builds large command sets, to measure how parsing scales with the number of registered commands.
+ */
+public class GeneratedCommands {
+
+    /**
+     * Registers commands named <code>cmd0</code> to <code>cmd{count-1}</code>, each taking an integer and a word.
+     */
+    public static void register(Hurricane api, int count) {
+        for (int i = 0; i < count; i++) {
+            api.register(CommandBuilder.create("cmd" + i)
+                    .args(Argument.of("n",int.class),Argument.of("name",String.class))
+                    .execute(ctx->CommandResult.success()));
+        }
+    }
+
+    /**
+     * Creates an API with the generated commands, that doesn't log or print anything.
+     */
+    public static Hurricane create(int count) {
+        Hurricane api = new Hurricane();
+        register(api,count);
+        return api;
+    }
+}
@@ -0,0 +1,67 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.InputReader;
+import com.shinybunny.hurricane.util.InvalidNumberException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link InputReader} primitives every argument adapter is built on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InputReaderBenchmark {
+
+    private final InputReader words = new InputReader("teleport    someone_far_away to the spawn");
+    private final InputReader integer = new InputReader("1234567 rest");
+    private final InputReader decimal = new InputReader("-1034.25 rest");
+    private final InputReader quoted = new InputReader("\"a quoted \\\"string\\\" with escapes\" rest");
+
+    @Benchmark
+    public String readWord() {
+        words.setPos(0);
+        return words.readWord();
+    }
+
+    @Benchmark
+    public int skipSpace() {
+        words.setPos(8);
+        words.skipSpace();
+        return words.getPos();
+    }
+
+    @Benchmark
+    public int readInteger() throws InvalidNumberException {
+        integer.setPos(0);
+        return integer.readInteger();
+    }
+
+    @Benchmark
+    public double readDouble() throws InvalidNumberException {
+        decimal.setPos(0);
+        return decimal.readDouble();
+    }
+
+    @Benchmark
+    public Number readAnyNumber() throws InvalidNumberException {
+        decimal.setPos(0);
+        return decimal.readAnyNumber();
+    }
+
+    @Benchmark
+    public String readQuotableString() {
+        quoted.setPos(0);
+        return quoted.readQuotableString();
+    }
+
+    @Benchmark
+    public String readRest() {
+        words.setPos(0);
+        return words.readRest();
+    }
+}
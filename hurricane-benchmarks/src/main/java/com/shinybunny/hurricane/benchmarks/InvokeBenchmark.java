@@ -0,0 +1,55 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways of calling a command method with its gathered arguments: {@link Method#invoke(Object, Object...)},
+ * a spread {@link MethodHandle} that isn't a constant, and the {@link MethodCommand.Invoker} a {@link MethodCommand} creates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvokeBenchmark {
+
+    private final Object[] args = {12.5,64.0,-1034.25};
+    private Method method;
+    private MethodHandle handle;
+    private MethodCommand.Invoker invoker;
+
+    @Setup
+    public void setup() throws Exception {
+        Hurricane api = new Hurricane();
+        api.register(BenchmarkCommands.class);
+        method = BenchmarkCommands.class.getMethod("teleport",double.class,double.class,double.class);
+        handle = MethodHandles.dropArguments(MethodHandles.publicLookup().unreflect(method),0,Object.class)
+                .asSpreader(Object[].class,3)
+                .asType(MethodType.methodType(Object.class,Object.class,Object[].class));
+        invoker = ((MethodCommand) api.getCommand("teleport")).getInvoker();
+    }
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        return method.invoke(null,args);
+    }
+
+    @Benchmark
+    public Object methodHandle() throws Throwable {
+        return (Object) handle.invokeExact((Object) null,args);
+    }
+
+    @Benchmark
+    public Object invoker() throws Throwable {
+        return invoker.invoke(null,args);
+    }
+}
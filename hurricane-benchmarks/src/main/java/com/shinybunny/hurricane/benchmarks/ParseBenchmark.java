@@ -0,0 +1,75 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.ExampleCommands;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.User;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Hurricane#parse(com.shinybunny.hurricane.CommandSender, String)} on realistic inputs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    private final SilentSender sender = new SilentSender();
+    /**
+     * The kick command only accepts a {@link User} sender. Parsing doesn't send any messages, so nothing is printed.
+     */
+    private final User user = new User("admin");
+    private Hurricane api;
+
+    @Setup
+    public void setup() {
+        api = new Hurricane();
+        api.register(ExampleCommands.class);
+        api.register(BenchmarkCommands.class);
+    }
+
+    @Benchmark
+    public CommandExecutionContext dice() throws CommandParsingException {
+        return api.parse(sender,"dice 2 12");
+    }
+
+    @Benchmark
+    public CommandExecutionContext overloadedSubCommand() throws CommandParsingException {
+        return api.parse(sender,"time set day");
+    }
+
+    @Benchmark
+    public CommandExecutionContext greedyString() throws CommandParsingException {
+        return api.parse(user,"kick someone for being way too loud in the chat");
+    }
+
+    @Benchmark
+    public CommandExecutionContext options() throws CommandParsingException {
+        return api.parse(sender,"give player shield 16");
+    }
+
+    @Benchmark
+    public CommandExecutionContext doubles() throws CommandParsingException {
+        return api.parse(sender,"teleport 12.5 64 -1034.25");
+    }
+
+    @Benchmark
+    public CommandExecutionContext tree() throws CommandParsingException {
+        return api.parse(sender,"team add blue green");
+    }
+
+    @Benchmark
+    public Object syntaxError() {
+        try {
+            return api.parse(sender,"dice two");
+        } catch (CommandParsingException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.ExampleCommands;
+import com.shinybunny.hurricane.Hurricane;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the startup cost of creating an API and registering command containers by reflection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegisterBenchmark {
+
+    @Benchmark
+    public Hurricane createApi() {
+        return new Hurricane();
+    }
+
+    @Benchmark
+    public Hurricane registerExampleCommands() {
+        Hurricane api = new Hurricane();
+        api.register(ExampleCommands.class);
+        return api;
+    }
+
+    @Benchmark
+    public Hurricane registerBenchmarkCommands() {
+        Hurricane api = new Hurricane();
+        api.register(BenchmarkCommands.class);
+        return api;
+    }
+
+    @Benchmark
+    public Hurricane registerBuiltCommands() {
+        return GeneratedCommands.create(100);
+    }
+}
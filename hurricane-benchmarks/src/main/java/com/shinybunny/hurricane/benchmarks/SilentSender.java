@@ -0,0 +1,30 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.CommandSender;
+
+/**
+ * A command sender that keeps the last message it got instead of printing it, so benchmarks measure the commands and not the console.
+ */
+public class SilentSender implements CommandSender {
+
+    private String lastMessage;
+
+    @Override
+    public void sendMessage(String msg) {
+        lastMessage = msg;
+    }
+
+    @Override
+    public void success(String msg) {
+        lastMessage = msg;
+    }
+
+    @Override
+    public void fail(String msg) {
+        lastMessage = msg;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+}
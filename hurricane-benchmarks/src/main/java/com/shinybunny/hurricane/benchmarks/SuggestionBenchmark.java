@@ -0,0 +1,53 @@
+package com.shinybunny.hurricane.benchmarks;
+
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.InputReader;
+import com.shinybunny.hurricane.tree.Argument;
+import com.shinybunny.hurricane.tree.CustomCommand;
+import com.shinybunny.hurricane.tree.TreeCommand;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures listing the suggestions of arguments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionBenchmark {
+
+    private final SilentSender sender = new SilentSender();
+    private Argument options;
+    private Argument enumArgument;
+    private InputReader reader;
+
+    @Setup
+    public void setup() {
+        Hurricane api = new Hurricane();
+        api.register(BenchmarkCommands.class);
+        options = api.getCommand("give").getArguments().get(1);
+        for (CustomCommand sc : ((TreeCommand) api.getCommand("team")).getSubCommands()) {
+            if (sc.getName().equals("add")) {
+                enumArgument = sc.getArguments().get(1);
+            }
+        }
+        reader = new InputReader("give player ");
+    }
+
+    @Benchmark
+    public List<String> options() {
+        reader.setPos(12);
+        return options.getSuggestions(reader,sender);
+    }
+
+    @Benchmark
+    public List<String> enumConstants() {
+        reader.setPos(12);
+        return enumArgument.getSuggestions(reader,sender);
+    }
+}
@@ -0,0 +1,499 @@
+package com.shinybunny.hurricane.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.SimpleAnnotationValueVisitor8;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.*;
+
+/**
+ * Generates a <code>CommandRegistry</code> for every class declaring <code>@Command</code> methods or <code>@Command</code> tree classes.
+ * <p>
+ * The generated registry builds the same <code>MethodCommand</code>s and <code>ParameterArgument</code>s that <code>Hurricane.register(Object)</code> builds by reflection,
+ * but with the names, types and annotations of the methods known at compile time, and with the methods called directly.
+ * The registries are listed in <code>META-INF/services/com.shinybunny.hurricane.CommandRegistry</code>, so Hurricane can find them with a <code>ServiceLoader</code>.
+ * <p>
+ * Containers the generated code cannot call into (such as private methods or private nested types) are skipped with a note, and are still registered by reflection.
+ */
+@SupportedAnnotationTypes(CommandProcessor.COMMAND)
+public class CommandProcessor extends AbstractProcessor {
+
+    static final String COMMAND = "com.shinybunny.hurricane.annotations.Command";
+    private static final String REGISTRY = "com.shinybunny.hurricane.CommandRegistry";
+    private static final String SUFFIX = "_HurricaneRegistry";
+
+    private final Set<String> registries = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+        TypeElement command = processingEnv.getElementUtils().getTypeElement(COMMAND);
+        if (command == null) return false;
+        Set<TypeElement> containers = new LinkedHashSet<>();
+        for (Element e : roundEnv.getElementsAnnotatedWith(command)) {
+            if (e.getKind() == ElementKind.METHOD) {
+                containers.add((TypeElement) e.getEnclosingElement());
+            } else if (e.getKind().isClass()) {
+                containers.add((TypeElement) e);
+                if (e.getEnclosingElement().getKind().isClass()) {
+                    containers.add((TypeElement) e.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement container : containers) {
+            try {
+                generate(container);
+            } catch (UnsupportedContainerException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Hurricane will register " + container + " by reflection: " + e.getMessage(), container);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate a command registry: " + e, container);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement container) throws IOException, UnsupportedContainerException {
+        checkAccessible(container);
+        String pkg = processingEnv.getElementUtils().getPackageOf(container).getQualifiedName().toString();
+        String name = registryName(container);
+        String containerType = container.getQualifiedName().toString();
+
+        SourceWriter src = new SourceWriter();
+        if (!pkg.isEmpty()) {
+            src.line("package " + pkg + ";").line();
+        }
+        src.line("/**");
+        src.line(" * The command registry of {@link " + containerType + "}. Generated by hurricane-processor, do not edit.");
+        src.line(" */");
+        src.line("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        src.open("public final class " + name + " implements " + REGISTRY + " {");
+        src.line();
+        src.open("public Class<?> getContainerType() {");
+        src.line("return " + containerType + ".class;");
+        src.close("}");
+        src.line();
+
+        List<TypeElement> trees = new ArrayList<>();
+        src.open("public void register(com.shinybunny.hurricane.Hurricane api, com.shinybunny.hurricane.CommandContainer container) {");
+        if (getCommand(container) != null) {
+            src.line("api.register(tree0(api, container));");
+            trees.add(container);
+        } else {
+            int i = 0;
+            for (ExecutableElement m : commandMethods(container)) {
+                src.line("com.shinybunny.hurricane.CommandRegisteringContext ctx" + i + " = new com.shinybunny.hurricane.CommandRegisteringContext(api, container, " + literal(commandName(m)) + ");");
+                src.line("api.register(" + methodName(container, m) + "(ctx" + i + ", container), ctx" + i + ");");
+                i++;
+            }
+            for (Element e : container.getEnclosedElements()) {
+                if (e.getKind().isClass() && getCommand(e) != null) {
+                    checkAccessible((TypeElement) e);
+                    src.line("api.register(tree" + trees.size() + "(api, new com.shinybunny.hurricane.CommandContainer(api, " + ((TypeElement) e).getQualifiedName() + ".class)));");
+                    trees.add((TypeElement) e);
+                }
+            }
+        }
+        src.close("}");
+
+        for (int t = 0; t < trees.size(); t++) {
+            TypeElement tree = trees.get(t);
+            AnnotationMirror settings = getCommand(tree);
+            src.line();
+            src.open("private static com.shinybunny.hurricane.tree.TreeCommand tree" + t + "(com.shinybunny.hurricane.Hurricane api, com.shinybunny.hurricane.CommandContainer container) {");
+            src.line("com.shinybunny.hurricane.tree.TreeCommand tree = new com.shinybunny.hurricane.tree.TreeCommand(container.getName(" + annotation(settings) + "));");
+            src.line("tree.description(" + literal(stringValue(settings, "desc")) + ");");
+            int i = 0;
+            for (ExecutableElement m : commandMethods(tree)) {
+                src.line("com.shinybunny.hurricane.CommandRegisteringContext ctx" + i + " = new com.shinybunny.hurricane.CommandRegisteringContext(api, container, " + literal(commandName(m)) + ");");
+                src.line("api.registerSubCommand(tree, " + methodName(tree, m) + "(ctx" + i + ", container), ctx" + i + ");");
+                i++;
+            }
+            src.line("return tree;");
+            src.close("}");
+        }
+
+        Set<TypeElement> declaring = new LinkedHashSet<>(trees);
+        declaring.add(container);
+        for (TypeElement type : declaring) {
+            for (ExecutableElement m : commandMethods(type)) {
+                src.line();
+                writeCommandMethod(src, type, m);
+            }
+        }
+        src.close("}");
+
+        String qualifiedName = pkg.isEmpty() ? name : pkg + "." + name;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, container);
+        try (Writer w = file.openWriter()) {
+            w.write(src.toString());
+        }
+        registries.add(qualifiedName);
+    }
+
+    private void writeCommandMethod(SourceWriter src, TypeElement type, ExecutableElement m) throws UnsupportedContainerException {
+        String typeName = type.getQualifiedName().toString();
+        boolean isStatic = m.getModifiers().contains(Modifier.STATIC);
+        List<? extends VariableElement> params = m.getParameters();
+
+        StringBuilder call = new StringBuilder();
+        call.append(isStatic ? typeName : "((" + typeName + ") instance)").append('.').append(m.getSimpleName()).append('(');
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) call.append(", ");
+            call.append('(').append(typeName(params.get(i).asType())).append(") args[").append(i).append(']');
+        }
+        call.append(')');
+        String invoker = m.getReturnType().getKind() == TypeKind.VOID
+                ? "(instance, args) -> {\n" + src.indent(3) + call + ";\n" + src.indent(3) + "return null;\n" + src.indent(2) + "}"
+                : "(instance, args) -> " + call;
+
+        src.open("private static com.shinybunny.hurricane.tree.MethodCommand " + methodName(type, m) + "(com.shinybunny.hurricane.CommandRegisteringContext ctx, com.shinybunny.hurricane.CommandContainer container) {");
+        src.line("com.shinybunny.hurricane.tree.MethodCommand cmd = new com.shinybunny.hurricane.tree.MethodCommand(ctx, " + literal(commandName(m)) + ", "
+                + literal(stringValue(getCommand(m), "desc")) + ", " + annotations(m) + ", container, " + isStatic + ", " + invoker + ");");
+        for (int i = 0; i < params.size(); i++) {
+            VariableElement p = params.get(i);
+            src.line("com.shinybunny.hurricane.tree.ParameterArgument arg" + i + " = new com.shinybunny.hurricane.tree.ParameterArgument(" + literal(p.getSimpleName().toString()) + ", "
+                    + typeName(p.asType()) + ".class, " + i + ", " + annotations(p) + ");");
+            src.line("arg" + i + ".postInit(ctx);");
+            src.line("cmd.addArgument(arg" + i + ");");
+        }
+        src.line("return cmd;");
+        src.close("}");
+    }
+
+    private List<ExecutableElement> commandMethods(TypeElement type) throws UnsupportedContainerException {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (Element e : type.getEnclosedElements()) {
+            if (e.getKind() == ElementKind.METHOD && getCommand(e) != null) {
+                ExecutableElement m = (ExecutableElement) e;
+                if (m.getModifiers().contains(Modifier.PRIVATE)) {
+                    throw new UnsupportedContainerException("command method " + m + " is private");
+                }
+                for (VariableElement p : m.getParameters()) {
+                    checkAccessible(p.asType());
+                }
+                methods.add(m);
+            }
+        }
+        return methods;
+    }
+
+    private String methodName(TypeElement type, ExecutableElement m) {
+        int index = 0;
+        for (Element e : type.getEnclosedElements()) {
+            if (e.equals(m)) break;
+            if (e.getKind() == ElementKind.METHOD) index++;
+        }
+        return type.getSimpleName() + "_" + m.getSimpleName() + index;
+    }
+
+    private String commandName(ExecutableElement m) {
+        String name = stringValue(getCommand(m), "value");
+        return name.isEmpty() ? m.getSimpleName().toString() : name;
+    }
+
+    private AnnotationMirror getCommand(Element e) {
+        for (AnnotationMirror a : e.getAnnotationMirrors()) {
+            if (((TypeElement) a.getAnnotationType().asElement()).getQualifiedName().contentEquals(COMMAND)) return a;
+        }
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror a, String element) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : processingEnv.getElementUtils().getElementValuesWithDefaults(a).entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(element)) return (String) e.getValue().getValue();
+        }
+        return "";
+    }
+
+    /**
+     * Writes an array of all the annotations of the element that are visible at runtime, like {@link java.lang.reflect.AnnotatedElement#getAnnotations()}.
+     */
+    private String annotations(Element e) throws UnsupportedContainerException {
+        StringBuilder sb = new StringBuilder("new java.lang.annotation.Annotation[]{");
+        boolean first = true;
+        for (AnnotationMirror a : e.getAnnotationMirrors()) {
+            Retention retention = a.getAnnotationType().asElement().getAnnotation(Retention.class);
+            if (retention == null || retention.value() != RetentionPolicy.RUNTIME) continue;
+            if (!first) sb.append(", ");
+            sb.append(annotation(a));
+            first = false;
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Writes an instance of the annotation, as an anonymous class implementing the annotation type with all of its values (including default values).
+     * Its <code>equals</code>, <code>hashCode</code> and <code>toString</code> follow the {@link java.lang.annotation.Annotation} contract, so it's interchangeable with the instance reflection returns.
+     */
+    private String annotation(AnnotationMirror a) throws UnsupportedContainerException {
+        TypeElement type = (TypeElement) a.getAnnotationType().asElement();
+        checkAccessible(type);
+        String typeName = type.getQualifiedName().toString();
+        StringBuilder sb = new StringBuilder("new ").append(typeName).append("() {");
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : processingEnv.getElementUtils().getElementValuesWithDefaults(a).entrySet()) {
+            TypeMirror returnType = e.getKey().getReturnType();
+            sb.append(" public ").append(returnType).append(' ').append(e.getKey().getSimpleName()).append("() { return ")
+                    .append(value(e.getValue(), returnType)).append("; }");
+        }
+        sb.append(" public Class<? extends java.lang.annotation.Annotation> annotationType() { return ").append(typeName).append(".class; }");
+        sb.append(" public boolean equals(Object o) { return com.shinybunny.hurricane.util.Utils.annotationEquals(this, o); }");
+        sb.append(" public int hashCode() { return com.shinybunny.hurricane.util.Utils.annotationHashCode(this); }");
+        return sb.append(" public String toString() { return com.shinybunny.hurricane.util.Utils.annotationToString(this); } }").toString();
+    }
+
+    private String value(AnnotationValue value, TypeMirror type) throws UnsupportedContainerException {
+        try {
+            return value.accept(new ValueWriter(), type);
+        } catch (UnsupportedValueException e) {
+            throw new UnsupportedContainerException(e.getMessage());
+        }
+    }
+
+    private String typeName(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void checkAccessible(TypeMirror type) throws UnsupportedContainerException {
+        if (type.getKind() == TypeKind.ARRAY) {
+            checkAccessible(((ArrayType) type).getComponentType());
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            checkAccessible((TypeElement) ((DeclaredType) type).asElement());
+        } else if (type.getKind() == TypeKind.TYPEVAR) {
+            checkAccessible(processingEnv.getTypeUtils().erasure(type));
+        }
+    }
+
+    private void checkAccessible(TypeElement type) throws UnsupportedContainerException {
+        for (Element e = type; e.getKind().isClass() || e.getKind().isInterface(); e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedContainerException(e + " is private");
+            }
+        }
+    }
+
+    private static String registryName(TypeElement type) {
+        StringBuilder sb = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e.getKind().isClass() || e.getKind().isInterface(); e = e.getEnclosingElement()) {
+            sb.insert(0, e.getSimpleName() + "_");
+        }
+        return sb.append(SUFFIX).toString();
+    }
+
+    private void writeServiceFile() {
+        if (registries.isEmpty()) return;
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + REGISTRY);
+            try (Writer w = file.openWriter()) {
+                for (String registry : registries) {
+                    w.write(registry);
+                    w.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write the command registry services: " + e);
+        }
+    }
+
+    static String literal(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            appendEscaped(sb, s.charAt(i), '"');
+        }
+        return sb.append('"').toString();
+    }
+
+    private static void appendEscaped(StringBuilder sb, char c, char quote) {
+        switch (c) {
+            case '\n': sb.append("\\n"); break;
+            case '\r': sb.append("\\r"); break;
+            case '\t': sb.append("\\t"); break;
+            case '\b': sb.append("\\b"); break;
+            case '\f': sb.append("\\f"); break;
+            case '\\': sb.append("\\\\"); break;
+            default:
+                if (c == quote) {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20 || c > 0x7e) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+        }
+    }
+
+    /**
+     * Writes annotation values as Java expressions of the annotation element's type.
+     */
+    private class ValueWriter extends SimpleAnnotationValueVisitor8<String, TypeMirror> {
+
+        @Override
+        protected String defaultAction(Object o, TypeMirror type) {
+            throw new UnsupportedValueException("unsupported annotation value " + o);
+        }
+
+        @Override
+        public String visitBoolean(boolean b, TypeMirror type) {
+            return String.valueOf(b);
+        }
+
+        @Override
+        public String visitByte(byte b, TypeMirror type) {
+            return "(byte) " + b;
+        }
+
+        @Override
+        public String visitChar(char c, TypeMirror type) {
+            StringBuilder sb = new StringBuilder("'");
+            appendEscaped(sb, c, '\'');
+            return sb.append('\'').toString();
+        }
+
+        @Override
+        public String visitShort(short s, TypeMirror type) {
+            return "(short) " + s;
+        }
+
+        @Override
+        public String visitInt(int i, TypeMirror type) {
+            return String.valueOf(i);
+        }
+
+        @Override
+        public String visitLong(long l, TypeMirror type) {
+            return l + "L";
+        }
+
+        @Override
+        public String visitFloat(float f, TypeMirror type) {
+            if (Float.isNaN(f)) return "Float.NaN";
+            if (Float.isInfinite(f)) return f > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+            return f + "f";
+        }
+
+        @Override
+        public String visitDouble(double d, TypeMirror type) {
+            if (Double.isNaN(d)) return "Double.NaN";
+            if (Double.isInfinite(d)) return d > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+            return String.valueOf(d);
+        }
+
+        @Override
+        public String visitString(String s, TypeMirror type) {
+            return literal(s);
+        }
+
+        @Override
+        public String visitType(TypeMirror t, TypeMirror type) {
+            try {
+                checkAccessible(t);
+            } catch (UnsupportedContainerException e) {
+                throw new UnsupportedValueException(e.getMessage());
+            }
+            return typeName(t) + ".class";
+        }
+
+        @Override
+        public String visitEnumConstant(VariableElement c, TypeMirror type) {
+            return ((TypeElement) c.getEnclosingElement()).getQualifiedName() + "." + c.getSimpleName();
+        }
+
+        @Override
+        public String visitAnnotation(AnnotationMirror a, TypeMirror type) {
+            try {
+                return annotation(a);
+            } catch (UnsupportedContainerException e) {
+                throw new UnsupportedValueException(e.getMessage());
+            }
+        }
+
+        @Override
+        public String visitArray(List<? extends AnnotationValue> values, TypeMirror type) {
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            StringBuilder sb = new StringBuilder("new ").append(typeName(component)).append("[]{");
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(values.get(i).accept(this, component));
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    /**
+     * Thrown when the generated registry would not be able to register a container, so it's left to be registered by reflection.
+     */
+    private static class UnsupportedContainerException extends Exception {
+
+        private UnsupportedContainerException(String message) {
+            super(message);
+        }
+    }
+
+    private static class UnsupportedValueException extends RuntimeException {
+
+        private UnsupportedValueException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A minimal writer of indented source lines.
+     */
+    private static class SourceWriter {
+
+        private final StringBuilder sb = new StringBuilder();
+        private int depth;
+
+        private SourceWriter line() {
+            sb.append('\n');
+            return this;
+        }
+
+        private SourceWriter line(String line) {
+            sb.append(indent(depth)).append(line).append('\n');
+            return this;
+        }
+
+        private void open(String line) {
+            line(line);
+            depth++;
+        }
+
+        private void close(String line) {
+            depth--;
+            line(line);
+        }
+
+        private String indent(int depth) {
+            char[] spaces = new char[depth * 4];
+            Arrays.fill(spaces, ' ');
+            return new String(spaces);
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
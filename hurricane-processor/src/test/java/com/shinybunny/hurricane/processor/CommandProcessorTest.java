@@ -0,0 +1,170 @@
+package com.shinybunny.hurricane.processor;
+
+import com.shinybunny.hurricane.CommandResult;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.User;
+import com.shinybunny.hurricane.annotations.Command;
+import com.shinybunny.hurricane.annotations.Default;
+import com.shinybunny.hurricane.annotations.Options;
+import com.shinybunny.hurricane.tree.Argument;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import com.shinybunny.hurricane.tree.ParameterArgument;
+import com.shinybunny.hurricane.tree.TreeCommand;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compiles a command container with the {@link CommandProcessor} and registers it through the generated registry.
+ */
+public class CommandProcessorTest {
+
+    private static final String SOURCE = String.join("\n",
+            "package sample;",
+            "",
+            "import com.shinybunny.hurricane.annotations.*;",
+            "",
+            "public class SampleCommands {",
+            "",
+            "    @Command(desc = \"Adds two numbers\")",
+            "    public static int add(int a, @Default(integer = 2) int b) {",
+            "        return a + b;",
+            "    }",
+            "",
+            "    @Command",
+            "    public static String color(@Options({\"red\", \"green\"}) String color) {",
+            "        return color;",
+            "    }",
+            "",
+            "    @Command",
+            "    public static class Team {",
+            "",
+            "        @Command",
+            "        public static int size(String name) {",
+            "            return name.length();",
+            "        }",
+            "    }",
+            "}");
+
+    private static Path dir;
+    private static URLClassLoader loader;
+    private static Class<?> container;
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        dir = Files.createTempDirectory("hurricane-processor");
+        Path src = dir.resolve("sample/SampleCommands.java");
+        Files.createDirectories(src.getParent());
+        Files.write(src,SOURCE.getBytes(StandardCharsets.UTF_8));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int status = compiler.run(null,out,out,"-classpath",System.getProperty("java.class.path"),
+                "-processor",CommandProcessor.class.getName(),"-d",dir.toString(),src.toString());
+        assertEquals(out.toString(),0,status);
+        loader = new URLClassLoader(new URL[]{dir.toUri().toURL()},CommandProcessorTest.class.getClassLoader());
+        container = loader.loadClass("sample.SampleCommands");
+    }
+
+    @AfterClass
+    public static void cleanUp() throws IOException {
+        loader.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void generatesRegistries() throws Exception {
+        assertNotNull(loader.loadClass("sample.SampleCommands_HurricaneRegistry"));
+        assertNotNull(loader.loadClass("sample.SampleCommands_Team_HurricaneRegistry"));
+    }
+
+    @Test
+    public void listsRegistriesAsServices() throws Exception {
+        Path services = dir.resolve("META-INF/services/com.shinybunny.hurricane.CommandRegistry");
+        assertEquals(Arrays.asList("sample.SampleCommands_HurricaneRegistry","sample.SampleCommands_Team_HurricaneRegistry"),
+                Files.readAllLines(services,StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void findsRegistriesOnlyThroughServices() throws Exception {
+        // the same classes, but without the service file: the registries must not be found by their names
+        try (URLClassLoader hidden = new URLClassLoader(new URL[]{dir.toUri().toURL()},CommandProcessorTest.class.getClassLoader()) {
+            @Override
+            public Enumeration<URL> findResources(String name) throws IOException {
+                return name.startsWith("META-INF/services/") ? Collections.emptyEnumeration() : super.findResources(name);
+            }
+        }) {
+            Hurricane api = new Hurricane();
+            api.setLogger(msg->{});
+            api.register(hidden.loadClass("sample.SampleCommands"));
+            assertNotNull("registered by reflection",((MethodCommand) api.getCommand("add")).getMethod());
+        }
+    }
+
+    @Test
+    public void registersThroughRegistry() throws Exception {
+        Hurricane api = new Hurricane();
+        api.register(container);
+        MethodCommand add = (MethodCommand) api.getCommand("add");
+        assertNull("registered by reflection",add.getMethod());
+        assertEquals("Adds two numbers",add.getDescription());
+        User user = new User("tester");
+        CommandResult<?> result = api.execute(user,"add 3");
+        assertEquals(5,result.getResult());
+        assertEquals("green",api.execute(user,"color green").getMessage());
+        assertTrue(api.getCommand("team") instanceof TreeCommand);
+        assertEquals(4,api.execute(user,"team size blue").getResult());
+    }
+
+    @Test
+    public void annotationsMatchReflection() throws Exception {
+        Hurricane api = new Hurricane();
+        api.register(container);
+        Method add = container.getMethod("add",int.class,int.class);
+        MethodCommand cmd = (MethodCommand) api.getCommand("add");
+        assertAnnotationEquals(add.getAnnotation(Command.class),cmd.getAnnotation(Command.class));
+        ParameterArgument b = argument(cmd,"b");
+        assertAnnotationEquals(add.getParameters()[1].getAnnotation(Default.class),b.getAnnotation(Default.class));
+
+        Method color = container.getMethod("color",String.class);
+        ParameterArgument arg = argument((MethodCommand) api.getCommand("color"),"color");
+        assertAnnotationEquals(color.getParameters()[0].getAnnotation(Options.class),arg.getAnnotation(Options.class));
+        assertNotEquals(add.getAnnotation(Command.class),arg.getAnnotation(Options.class));
+    }
+
+    private static ParameterArgument argument(MethodCommand cmd, String name) {
+        for (Argument a : cmd.getArguments()) {
+            if (a.getName().equals(name)) return (ParameterArgument) a;
+        }
+        throw new AssertionError("no argument " + name);
+    }
+
+    private static void assertAnnotationEquals(Annotation reflected, Annotation generated) {
+        assertNotSame(reflected,generated);
+        assertEquals(reflected,generated);
+        assertEquals(generated,reflected);
+        assertEquals(reflected.hashCode(),generated.hashCode());
+        assertTrue(generated.toString(),generated.toString().startsWith("@" + reflected.annotationType().getName() + "("));
+    }
+}
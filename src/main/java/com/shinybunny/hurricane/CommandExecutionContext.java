@@ -1,5 +1,6 @@
 package com.shinybunny.hurricane;
 
+import com.shinybunny.hurricane.tree.ArgumentPlan;
 import com.shinybunny.hurricane.tree.CustomCommand;
 import com.shinybunny.hurricane.tree.ParsedArgument;
 import com.shinybunny.hurricane.util.CustomDataHolder;
@@ -8,17 +9,62 @@ import java.util.*;
 
 public class CommandExecutionContext extends CustomDataHolder {
 
+    private static final Object[] NO_VALUES = new Object[0];
+    private static final ThreadLocal<CommandExecutionContext> CURRENT = new ThreadLocal<>();
+
     private Hurricane api;
     private final CommandSender sender;
     private InputReader reader;
-    private Map<String, ParsedArgument> arguments;
+    /**
+     * The plan of the command whose arguments are being parsed. Its argument at each index has its value in the slot of the same index.
+     */
+    private ArgumentPlan plan;
+    private Object[] values = NO_VALUES;
+    /**
+     * The number of slots that have a value, since arguments are parsed in order
+     */
+    private int parsed;
+    /**
+     * Arguments added by name that are not part of the plan
+     */
+    private Map<String, ParsedArgument> extraArguments;
     private CommandExecutor executor;
+    private volatile boolean cancelled;
+    /**
+     * The {@link System#nanoTime()} the command should be done by, or 0 if it has no deadline
+     */
+    private volatile long deadline;
 
     public CommandExecutionContext(Hurricane api, CommandSender sender, InputReader reader) {
         this.api = api;
         this.sender = sender;
         this.reader = reader;
-        this.arguments = new HashMap<>();
+    }
+
+    /**
+     * Gets the context of the command that is executing on the current thread, including commands executed {@link Hurricane#executeAsync(CommandSender, String) asynchronously}.
+     * @return The context, or <code>null</code> if no command is executing on this thread
+     */
+    public static CommandExecutionContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this the {@link #current() current} context of this thread.
+     * @return The previous context of the thread, to pass to {@link #restore(CommandExecutionContext)} when the command is done
+     */
+    CommandExecutionContext enter() {
+        CommandExecutionContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    static void restore(CommandExecutionContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
     }
 
     public CommandSender getSender() {
@@ -33,12 +79,73 @@ public class CommandExecutionContext extends CustomDataHolder {
         return api;
     }
 
+    /**
+     * Gets all the parsed arguments, in the order of the command's arguments.
+     * The {@link ParsedArgument} objects are created by this call.
+     */
     public List<ParsedArgument> getArguments() {
-        return new ArrayList<>(arguments.values());
+        List<ParsedArgument> list = new ArrayList<>(parsed + (extraArguments == null ? 0 : extraArguments.size()));
+        for (int i = 0; i < parsed; i++) {
+            list.add(new ParsedArgument(plan.getArgument(i),values[i]));
+        }
+        if (extraArguments != null) {
+            list.addAll(extraArguments.values());
+        }
+        return list;
     }
 
     public Optional<ParsedArgument> getArg(String name) {
-        return Optional.ofNullable(arguments.get(name));
+        int slot = getArgumentSlot(name);
+        if (slot >= 0) {
+            return Optional.of(new ParsedArgument(plan.getArgument(slot),values[slot]));
+        }
+        return extraArguments == null ? Optional.empty() : Optional.ofNullable(extraArguments.get(name));
+    }
+
+    /**
+     * Checks whether an argument with the name was parsed.
+     */
+    public boolean hasArgument(String name) {
+        return getArgumentSlot(name) >= 0 || (extraArguments != null && extraArguments.containsKey(name));
+    }
+
+    /**
+     * Gets the value of an argument by its name, without creating a {@link ParsedArgument}.
+     * @return The value, or <code>null</code> if no argument with the name was parsed
+     */
+    public Object getArgumentValue(String name) {
+        int slot = getArgumentSlot(name);
+        if (slot >= 0) return values[slot];
+        if (extraArguments == null) return null;
+        ParsedArgument arg = extraArguments.get(name);
+        return arg == null ? null : arg.getValue();
+    }
+
+    /**
+     * Gets the value of the argument at an index of the {@link #getArgumentPlan() argument plan}.
+     */
+    public Object getArgumentValue(int slot) {
+        if (slot >= parsed) {
+            throw new IndexOutOfBoundsException("Argument " + slot + " was not parsed");
+        }
+        return values[slot];
+    }
+
+    /**
+     * Gets the index of a parsed argument in the {@link #getArgumentPlan() argument plan}.
+     * @return The index, or -1 if the plan has no argument with the name or it was not parsed yet
+     */
+    public int getArgumentSlot(String name) {
+        if (plan == null) return -1;
+        int slot = plan.slotOf(name);
+        return slot < parsed ? slot : -1;
+    }
+
+    /**
+     * Gets the plan of the command the arguments were parsed for, or <code>null</code> if no command parsed its arguments yet.
+     */
+    public ArgumentPlan getArgumentPlan() {
+        return plan;
     }
 
     public <T> T get(String name, Class<T> type) {
@@ -50,12 +157,56 @@ public class CommandExecutionContext extends CustomDataHolder {
 
     public CommandExecutionContext copy() {
         CommandExecutionContext ctx = new CommandExecutionContext(api, sender, reader);
-        ctx.arguments = new HashMap<>(arguments);
+        ctx.plan = plan;
+        ctx.values = values.clone();
+        ctx.parsed = parsed;
+        ctx.extraArguments = extraArguments == null ? null : new LinkedHashMap<>(extraArguments);
         return ctx;
     }
 
+    /**
+     * Starts storing the arguments of a command, removing any arguments parsed so far.
+     * @param plan The plan the arguments are parsed with. Values are stored in the slots of their arguments in the plan.
+     */
+    public void beginArguments(ArgumentPlan plan) {
+        this.plan = plan;
+        if (values.length != plan.size()) {
+            values = plan.size() == 0 ? NO_VALUES : new Object[plan.size()];
+        }
+        parsed = 0;
+        extraArguments = null;
+    }
+
+    /**
+     * Stores the value of the argument at an index of the current plan. Arguments must be set in order.
+     */
+    public void setArgumentValue(int slot, Object value) {
+        values[slot] = value;
+        if (slot >= parsed) {
+            parsed = slot + 1;
+        }
+    }
+
     public void withArgument(String name, ParsedArgument arg) {
-        arguments.put(name,arg);
+        if (plan != null) {
+            int slot = plan.slotOf(name);
+            if (slot >= 0 && slot <= parsed && plan.getArgument(slot) == arg.getArgument()) {
+                setArgumentValue(slot,arg.getValue());
+                return;
+            }
+        }
+        if (extraArguments == null) {
+            extraArguments = new LinkedHashMap<>();
+        }
+        extraArguments.put(name,arg);
+    }
+
+    /**
+     * Removes all the arguments parsed so far, used when parsing backtracks to try another command.
+     */
+    public void clearArguments() {
+        parsed = 0;
+        extraArguments = null;
     }
 
     public void setExecutor(CommandExecutor executor) {
@@ -65,4 +216,42 @@ public class CommandExecutionContext extends CustomDataHolder {
     public CommandExecutor getExecutor() {
         return executor;
     }
+
+    /**
+     * Checks whether the command should stop: it was {@link #cancel() cancelled}, or its {@link Hurricane#setExecutionTimeout(long, java.util.concurrent.TimeUnit) deadline} passed.
+     * Commands that take long should check this from time to time, and return when it is true.
+     * <pre>
+     * for (Player p : players) {
+     *     if (ctx.isCancelled()) return false;
+     *     ...
+     * }
+     * </pre>
+     */
+    public boolean isCancelled() {
+        if (cancelled) return true;
+        long deadline = this.deadline;
+        return deadline != 0 && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Asks the command to stop. Nothing stops the command unless it checks {@link #isCancelled()}.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Sets the time the command should be done by.
+     * @param deadline A {@link System#nanoTime()} value, or 0 for no deadline
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} the command should be done by, or 0 if it has no deadline.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
 }
@@ -2,6 +2,7 @@ package com.shinybunny.hurricane;
 
 import com.shinybunny.hurricane.tree.CustomCommand;
 import com.shinybunny.hurricane.util.CommandFailedException;
+import com.shinybunny.hurricane.util.CommandParsingException;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
 
 import java.util.List;
@@ -10,8 +11,36 @@ public interface CommandHook {
 
     void onRegistered(CustomCommand cmd, CommandRegisteringContext ctx) throws CommandRegisterFailedException;
 
-    void preExecute(CustomCommand cmd, List<Object> args, CommandExecutionContext ctx) throws CommandFailedException;
+    /**
+     * Called when an input is about to be parsed as the command, before any of its arguments are parsed.
+     * @throws CommandParsingException To reject the input without parsing its arguments
+     */
+    default void preParse(CustomCommand cmd, CommandExecutionContext ctx) throws CommandParsingException {
 
-    void postExecute(CustomCommand cmd, CommandResult<?> result, CommandExecutionContext ctx);
+    }
+
+    /**
+     * Called once the whole input was parsed, on the command that will be executed.
+     * Unlike {@link #preParse(CustomCommand, CommandExecutionContext)}, it is not called for overloads that were tried and didn't accept the input.
+     * @throws CommandParsingException To reject the parsed input
+     */
+    default void postParse(CustomCommand cmd, CommandExecutionContext ctx) throws CommandParsingException {
+
+    }
+
+    /**
+     * Called before the command is executed with its parsed arguments, which can be changed in place.
+     * @throws CommandFailedException To fail the command without executing it
+     */
+    default void preExecute(CustomCommand cmd, List<Object> args, CommandExecutionContext ctx) throws CommandFailedException {
+
+    }
+
+    /**
+     * Called after the command was executed, with its result.
+     */
+    default void postExecute(CustomCommand cmd, CommandResult<?> result, CommandExecutionContext ctx) {
+
+    }
 
 }
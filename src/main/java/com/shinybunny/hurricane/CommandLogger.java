@@ -0,0 +1,49 @@
+package com.shinybunny.hurricane;
+
+import java.util.function.Consumer;
+
+/**
+ * Receives log messages from a {@link Hurricane} instance. Good for debugging the API.
+ * <p>
+ * The API checks {@link #isEnabled(LogLevel)} before building a message, so levels that are disabled cost nothing when parsing and executing commands.
+ */
+public interface CommandLogger {
+
+    /**
+     * Checks whether messages of the level should be logged.
+     */
+    boolean isEnabled(LogLevel level);
+
+    /**
+     * Logs a message. Only called for enabled levels.
+     * @param level The level of the message
+     * @param msg The message
+     */
+    void log(LogLevel level, String msg);
+
+    /**
+     * Creates a logger passing messages of all levels to a consumer.
+     */
+    static CommandLogger of(Consumer<String> consumer) {
+        return of(consumer,LogLevel.TRACE);
+    }
+
+    /**
+     * Creates a logger passing messages to a consumer.
+     * @param consumer The consumer of the messages
+     * @param minLevel The least severe level to log
+     */
+    static CommandLogger of(Consumer<String> consumer, LogLevel minLevel) {
+        return new CommandLogger() {
+            @Override
+            public boolean isEnabled(LogLevel level) {
+                return level.isAtLeast(minLevel);
+            }
+
+            @Override
+            public void log(LogLevel level, String msg) {
+                consumer.accept(msg);
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.shinybunny.hurricane;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class CommandRegisteringContext {
@@ -56,6 +57,13 @@ public class CommandRegisteringContext {
         errors.add(e);
     }
 
+    /**
+     * Gets the errors added while registering the command.
+     */
+    public List<CommandRegisterFailedException> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
     public void printErrors() {
         if (!errors.isEmpty()) {
             System.err.println("Errors occurred when registering command '" + command + "':");
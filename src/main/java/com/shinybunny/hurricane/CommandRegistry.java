@@ -0,0 +1,25 @@
+package com.shinybunny.hurricane;
+
+/**
+ * Registers the commands of a single command container without reflection.
+ * <p>
+ * Registries are generated at compile time by the <code>hurricane-processor</code> annotation processor, one for each class declaring {@link com.shinybunny.hurricane.annotations.Command @Command} methods or classes,
+ * and are listed as services in <code>META-INF/services/com.shinybunny.hurricane.CommandRegistry</code>.
+ * Shaded jars need to merge those service files, for example with the <code>ServicesResourceTransformer</code> of the Maven Shade Plugin.
+ * When {@link Hurricane#register(Object)} is called with a container that has a registry, the registry is used instead of scanning the container reflectively.
+ */
+public interface CommandRegistry {
+
+    /**
+     * Gets the container class this registry registers the commands of.
+     */
+    Class<?> getContainerType();
+
+    /**
+     * Creates and registers all commands of the container, the same way {@link Hurricane#register(Object)} does by reflection.
+     * @param api The API instance to register the commands to
+     * @param container The container, wrapping the registered class or instance
+     */
+    void register(Hurricane api, CommandContainer container);
+
+}
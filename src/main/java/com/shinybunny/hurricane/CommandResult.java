@@ -5,6 +5,7 @@ public class CommandResult<T> {
     private T result;
     private boolean success;
     private String message;
+    private boolean timedOut;
 
     public CommandResult(T result, boolean success, String message) {
         this.result = result;
@@ -14,7 +15,7 @@ public class CommandResult<T> {
 
     @Override
     public String toString() {
-        return "Result: " + (success ? "success" : "failure") + " (" + result + ") '" + message + "')";
+        return "Result: " + (timedOut ? "timeout" : success ? "success" : "failure") + " (" + result + ") '" + message + "')";
     }
 
     public void setMessage(String message) {
@@ -57,6 +58,15 @@ public class CommandResult<T> {
         return result(false,msg);
     }
 
+    /**
+     * Creates the failed result of a command that didn't finish before its {@link Hurricane#setExecutionTimeout(long, java.util.concurrent.TimeUnit) timeout}.
+     */
+    public static <T> CommandResult<T> timeout(String msg) {
+        CommandResult<T> result = result(false,msg);
+        result.timedOut = true;
+        return result;
+    }
+
     public static <T> CommandResult<T> success() {
         return result(true,"");
     }
@@ -68,4 +78,11 @@ public class CommandResult<T> {
     public boolean isSuccessful() {
         return success;
     }
+
+    /**
+     * Checks whether the command didn't finish before its timeout. A timed out result is never {@link #isSuccessful() successful}.
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
 }
@@ -8,6 +8,7 @@ import java.util.Random;
 public class ExampleCommands {
 
     @Command
+    @ExecutionPriority(ExecutionPriority.Level.HIGH)
     @Feedback(success="Kicked user ${user.getName()} from the server for ${reason}!",fail="You have no permissions to use this command!")
     public static boolean kick(@Sender User sender, User user, @Default("no apparent reason") @Greedy String reason) {
         return true;
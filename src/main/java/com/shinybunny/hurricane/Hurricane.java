@@ -2,16 +2,28 @@ package com.shinybunny.hurricane;
 
 import com.shinybunny.hurricane.annotations.*;
 import com.shinybunny.hurricane.arguments.*;
+import com.shinybunny.hurricane.metrics.CommandMetrics;
+import com.shinybunny.hurricane.scheduling.CommandScheduler;
 import com.shinybunny.hurricane.tree.*;
 import com.shinybunny.hurricane.util.*;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * The main Hurricane API instance. This is a common class storing all commands and all type adapters, serving as a command system.
@@ -24,17 +36,69 @@ public class Hurricane extends CustomDataHolder {
 
     private List<ParamAnnotationAdapter<?>> paramAnnotationAdapters = new ArrayList<>();
     private List<MethodAnnotationAdapter<?>> methodAnnotationAdapters = new ArrayList<>();
+    /**
+     * The single instances of adapter classes declared with {@link Adapter}
+     */
+    private final Map<Class<?>, AnnotationAdapter<?,?>> sharedAdapters = new HashMap<>();
+    /**
+     * The single instances of options providers used by {@link com.shinybunny.hurricane.annotations.Options @Options}
+     */
+    private final Map<Class<?>, OptionsProvider> optionsProviders = new HashMap<>();
+    /**
+     * The single instances of dummy adapters, for every kind of {@link AnnotationAdapterContainer} and annotation type
+     */
+    private final Map<Class<?>, Map<Class<? extends Annotation>, AnnotationAdapter<?,?>>> dummyAdapters = new HashMap<>();
+    /**
+     * The priority order of every distinct list of annotation adapters that were resolved together
+     */
+    private final Map<List<AnnotationAdapter<?,?>>, List<AnnotationAdapter<?,?>>> sortedAnnotationAdapters = new HashMap<>();
     private List<ArgumentAdapter<?>> argumentAdapters = new ArrayList<>();
+    /**
+     * The argument adapters in priority order, or <code>null</code> when they need to be sorted again
+     */
+    private List<ArgumentAdapter<?>> sortedArgumentAdapters;
+    /**
+     * The sorted argument adapters that may apply to each argument type
+     */
+    private final Map<Class<?>, ArgumentAdapter<?>[]> argumentAdapterCandidates = new HashMap<>();
 
-    private boolean literalsIgnoreCase = true;
-    private boolean allowMultiSpaces = true;
+    private volatile boolean literalsIgnoreCase = true;
+    private volatile boolean allowMultiSpaces = true;
 
-    private Predicate<CustomCommand> commandConsumer;
-    private Consumer<String> logger;
+    private volatile Predicate<CustomCommand> commandConsumer;
+    private volatile CommandLogger logger;
+    private volatile CommandMetrics metrics;
 
-    protected List<CustomCommand> registeredCommands = new ArrayList<>();
+    /**
+     * The registered commands. Registering a command publishes a new snapshot, so parsing never locks and always sees a complete set of fully registered commands.
+     */
+    private volatile RegisteredCommands registered = RegisteredCommands.EMPTY;
 
-    private String defaultNoPermsMessage;
+    private volatile String defaultNoPermsMessage;
+
+    private volatile Executor asyncExecutor = ForkJoinPool.commonPool();
+    /**
+     * The executors commands can choose with {@link Async}
+     */
+    private final Map<String, Executor> asyncExecutors = new ConcurrentHashMap<>();
+    private volatile CommandScheduler scheduler = CommandScheduler.DIRECT;
+    /**
+     * The default execution timeout in nanoseconds, or 0 for none
+     */
+    private volatile long executionTimeout;
+
+    /**
+     * The compile-time generated {@link CommandRegistry command registries} of every class loader, found with a <code>ServiceLoader</code> once per class loader.
+     * The registries are only weakly referenced here, and strongly from the container classes they were looked up for,
+     * so a class loader can still be collected.
+     */
+    private static final Map<ClassLoader, WeakReference<CompiledRegistries>> LOADED_REGISTRIES = new WeakHashMap<>();
+    private static final ClassValue<CompiledRegistries> COMPILED_REGISTRIES = new ClassValue<CompiledRegistries>() {
+        @Override
+        protected CompiledRegistries computeValue(Class<?> type) {
+            return CompiledRegistries.of(type.getClassLoader());
+        }
+    };
 
     public Hurricane() {
         initDefaults();
@@ -43,6 +107,7 @@ public class Hurricane extends CustomDataHolder {
     /**
      * Determines if literal arguments (usually command names and sub-commands) ignore capitalization.
      * That means the input <code>HELP</code> will run the command <code>help</code>.
+     * Root command names and aliases always ignore capitalization, regardless of this setting.
      * @param literalsIgnoreCase True to ignore case when matching literal strings
      */
     public void setLiteralsIgnoreCase(boolean literalsIgnoreCase) {
@@ -57,6 +122,21 @@ public class Hurricane extends CustomDataHolder {
         this.allowMultiSpaces = allowMultiSpaces;
     }
 
+    /**
+     * Enables recording {@link CommandMetrics metrics} of parsing and executing commands.
+     * @param metrics The metrics to record to, or <code>null</code> to stop recording
+     */
+    public void setMetrics(CommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the metrics commands are recorded to, or <code>null</code> if metrics are disabled
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
     public boolean isAllowMultiSpaces() {
         return allowMultiSpaces;
     }
@@ -74,19 +154,52 @@ public class Hurricane extends CustomDataHolder {
     }
 
     /**
-     * Sets a callback to logging messages. Good for debugging the API.
+     * Sets a callback to logging messages of all levels. Good for debugging the API.
+     * @param logger The callback, or <code>null</code> to disable logging
+     * @see #setLogger(CommandLogger)
      */
     public void setLogger(Consumer<String> logger) {
+        setLogger(logger == null ? null : CommandLogger.of(logger));
+    }
+
+    /**
+     * Sets the logger of this API instance.
+     * @param logger The logger, or <code>null</code> to disable logging
+     */
+    public void setLogger(CommandLogger logger) {
         this.logger = logger;
     }
 
-    public Consumer<String> getLogger() {
+    public CommandLogger getLogger() {
         return logger;
     }
 
+    /**
+     * Checks whether messages of the level are logged. Use it to avoid building messages that won't be logged.
+     */
+    public boolean isLogging(LogLevel level) {
+        CommandLogger logger = this.logger;
+        return logger != null && logger.isEnabled(level);
+    }
+
     public void log(String msg) {
-        if (logger != null) {
-            logger.accept(msg);
+        log(LogLevel.INFO,msg);
+    }
+
+    public void log(LogLevel level, String msg) {
+        CommandLogger logger = this.logger;
+        if (logger != null && logger.isEnabled(level)) {
+            logger.log(level,msg);
+        }
+    }
+
+    /**
+     * Logs a message that is only built if the level is enabled.
+     */
+    public void log(LogLevel level, Supplier<String> msg) {
+        CommandLogger logger = this.logger;
+        if (logger != null && logger.isEnabled(level)) {
+            logger.log(level,msg.get());
         }
     }
 
@@ -138,19 +251,39 @@ public class Hurricane extends CustomDataHolder {
      * Registers an entire class containing multiple methods annotated with {@link Command}.
      * @param container The container class or an instance of the class
      */
-    public void register(Object container) {
+    public synchronized void register(Object container) {
         Class<?> cls = container instanceof Class ? (Class<?>)container : container.getClass();
         if (cls.isInterface() || cls.isArray() || cls.isAnnotation()) {
             throw new RuntimeException(new CommandRegisterFailedException("Invalid command container, can only register classes or enum classes."));
         }
         CommandContainer c = new CommandContainer(this,container);
-        if (cls.isAnnotationPresent(Command.class)) {
+        CommandRegistry registry = getCompiledRegistry(cls);
+        if (registry != null) {
+            log(LogLevel.DEBUG,()->"registering " + cls + " using " + registry.getClass().getName());
+            registry.register(this,c);
+        } else if (cls.isAnnotationPresent(Command.class)) {
             register(createTree(c,cls.getAnnotation(Command.class)));
         } else {
             createFromContainer(c);
         }
     }
 
+    /**
+     * Gets the {@link CommandRegistry} generated at compile time for the container class, if there is one.
+     * @param cls The container class
+     * @return The registry, or <code>null</code> if the container should be registered by reflection
+     */
+    protected CommandRegistry getCompiledRegistry(Class<?> cls) {
+        if (cls.getClassLoader() == null) return null;
+        CompiledRegistries compiled = COMPILED_REGISTRIES.get(cls);
+        if (compiled.reported.compareAndSet(false,true)) {
+            for (String error : compiled.errors) {
+                log(LogLevel.WARN,"skipping invalid command registry: " + error);
+            }
+        }
+        return compiled.registries.get(cls);
+    }
+
     protected void createFromContainer(CommandContainer container) {
         Class<?> cls = container.getContainingClass();
         for (Method m : cls.getDeclaredMethods()) {
@@ -180,18 +313,19 @@ public class Hurricane extends CustomDataHolder {
         register(cmd,new CommandRegisteringContext(this,null,cmd.getName()));
     }
 
-    public void register(CustomCommand cmd, CommandRegisteringContext ctx) {
+    public synchronized void register(CustomCommand cmd, CommandRegisteringContext ctx) {
         cmd.onRegister(ctx);
         ctx.printErrors();
         if (!ctx.isCancelled()) {
+            cmd.resolveExecutionSettings();
             if (commandConsumer == null || commandConsumer.test(cmd)) {
-                log("Added command: " + cmd);
-                registeredCommands.add(cmd);
+                log(LogLevel.DEBUG,()->"Added command: " + cmd);
+                registered = registered.with(cmd);
             }
         }
     }
 
-    public <T extends CustomCommand> T register(CommandBuilder<T> builder) {
+    public synchronized <T extends CustomCommand> T register(CommandBuilder<T> builder) {
         CommandRegisteringContext ctx = new CommandRegisteringContext(this,null,builder.getName());
         T cmd = builder.build(ctx);
         register(cmd,ctx);
@@ -205,119 +339,185 @@ public class Hurricane extends CustomDataHolder {
         for (Method m : cls.getDeclaredMethods()) {
             if (m.isAnnotationPresent(Command.class)) {
                 CommandRegisteringContext ctx = new CommandRegisteringContext(this, container, Utils.getName(m));
-                CustomCommand sc = createFromMethod(ctx, m, container);
-                sc.onRegister(ctx);
-                ctx.printErrors();
-                if (!ctx.isCancelled()) {
-                    cmd.addSubCommand(sc);
-                }
+                registerSubCommand(cmd, createFromMethod(ctx, m, container), ctx);
             }
         }
         return cmd;
     }
 
-    public ArgumentAdapter<?> getArgumentAdapter(Argument arg, CommandRegisteringContext ctx) {
-        List<ArgumentAdapter<?>> adapters = argumentAdapters.stream().filter(a->a.canApply(arg,ctx)).collect(Collectors.toList());
-        Random r = new Random();
-        for (int i = 0; i < adapters.size() - 1; i++) {
-            ArgumentAdapter<?> a = adapters.get(i);
-            for (int j = i + 1; j < adapters.size(); j++) {
-                ArgumentAdapter<?> b = adapters.get(j);
-                switch (a.getPriorityOn(b,ctx)) {
-                    case DEFAULT:
-                    case BEFORE:
-                        break;
-                    case AFTER:
-                        adapters.set(j,a);
-                        adapters.set(i,b);
-                        break;
-                    case RANDOM:
-                        if (r.nextBoolean()) {
-                            adapters.set(j,a);
-                            adapters.set(i,b);
-                        }
-                        break;
-                    case OVERSHADOW:
-                        adapters.remove(j);
-                        j++;
-                        break;
-                }
-                switch (b.getPriorityOn(a,ctx)) {
-                    case DEFAULT:
-                    case AFTER:
-                        break;
-                    case BEFORE:
-                        adapters.set(j,a);
-                        adapters.set(i,b);
-                        break;
-                    case RANDOM:
-                        if (r.nextBoolean()) {
-                            adapters.set(j,a);
-                            adapters.set(i,b);
-                        }
-                        break;
-                    case OVERSHADOW:
-                        adapters.remove(i);
-                        i--;
-                        break;
-                }
+    /**
+     * Registers a sub-command of a tree command, adding it to the tree unless its registration was cancelled.
+     */
+    public void registerSubCommand(TreeCommand tree, CustomCommand sc, CommandRegisteringContext ctx) {
+        sc.onRegister(ctx);
+        ctx.printErrors();
+        if (!ctx.isCancelled()) {
+            tree.addSubCommand(sc);
+        }
+    }
+
+    /**
+     * Finds the argument adapter of an argument: the first adapter in priority order that {@link ArgumentAdapter#canApply(Argument, CommandRegisteringContext) can apply} to it.
+     * @return The adapter, or <code>null</code> if none of the registered adapters can apply to the argument
+     */
+    public synchronized ArgumentAdapter<?> getArgumentAdapter(Argument arg, CommandRegisteringContext ctx) {
+        for (ArgumentAdapter<?> a : getArgumentAdapterCandidates(arg.getType(),ctx)) {
+            if (a.canApply(arg,ctx)) return a;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the adapters that may apply to arguments of the given type, which are the adapters whose {@link ArgumentAdapter#getType() type} is a super type of it.
+     * <p>
+     * The adapters are ordered by their {@link ArgumentAdapter#getPriorityOn(ArgumentAdapter, CommandRegisteringContext) priorities} once,
+     * and the candidates of each type are cached until an argument adapter is added or removed.
+     * An adapter overshadowing another is placed before it, so it's chosen when both can apply.
+     * @param type The argument type, with primitives wrapped
+     * @param ctx The current command registering context
+     */
+    protected ArgumentAdapter<?>[] getArgumentAdapterCandidates(Class<?> type, CommandRegisteringContext ctx) {
+        ArgumentAdapter<?>[] candidates = argumentAdapterCandidates.get(type);
+        if (candidates == null) {
+            if (sortedArgumentAdapters == null) {
+                sortedArgumentAdapters = PrioritySorter.sort(argumentAdapters,(a,b)->a.getPriorityOn(b,ctx),false);
+            }
+            candidates = sortedArgumentAdapters.stream().filter(a->a.getType().isAssignableFrom(type)).toArray(ArgumentAdapter<?>[]::new);
+            argumentAdapterCandidates.put(type,candidates);
+        }
+        return candidates;
+    }
+
+    private void invalidateArgumentAdapters() {
+        sortedArgumentAdapters = null;
+        argumentAdapterCandidates.clear();
+    }
+
+    /**
+     * Gets the shared instance of an annotation adapter class, declared with an {@link Adapter} annotation. The instance is created on first use.
+     * @param type The adapter class
+     * @throws CommandRegisterFailedException If the adapter class cannot be instantiated
+     */
+    public synchronized AnnotationAdapter<?,?> getSharedAdapter(Class<? extends AnnotationAdapter<?,?>> type) throws CommandRegisterFailedException {
+        AnnotationAdapter<?,?> adapter = sharedAdapters.get(type);
+        if (adapter == null) {
+            try {
+                adapter = type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new CommandRegisterFailedException(e);
             }
+            sharedAdapters.put(type,adapter);
+        }
+        return adapter;
+    }
+
+    /**
+     * Gets the single instance of an options provider class, creating it if needed.
+     * Use it to {@link OptionsProvider#refresh() refresh} the options of all the commands using the provider.
+     * @throws CommandRegisterFailedException If the provider could not be instantiated
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <P extends OptionsProvider> P getOptionsProvider(Class<P> type) throws CommandRegisterFailedException {
+        OptionsProvider provider = optionsProviders.get(type);
+        if (provider == null) {
+            try {
+                provider = type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new CommandRegisterFailedException(e);
+            }
+            optionsProviders.put(type,provider);
+        }
+        return (P) provider;
+    }
+
+    /**
+     * Gets the shared dummy adapter for annotations marked with {@link DummyAdapter}, of the given annotation type on the given kind of container.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <A> A getDummyAdapter(AnnotationAdapterContainer<? extends A> container, Class<? extends Annotation> annotationType) {
+        Map<Class<? extends Annotation>, AnnotationAdapter<?,?>> adapters = dummyAdapters.computeIfAbsent(container.getClass(),k->new HashMap<>());
+        return (A) adapters.computeIfAbsent(annotationType,container::dummyAdapter);
+    }
+
+    /**
+     * Orders annotation adapters resolved for the same element by their {@link AnnotationAdapter#getPriorityOn(AnnotationAdapter, CommandRegisteringContext) priorities}.
+     * The order of each distinct list of adapters is computed once, and reused while the registered annotation adapters don't change.
+     * @param adapters The adapters, in the order of their annotations
+     * @return A new list of the adapters in priority order, without overshadowed adapters
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <A> List<A> sortAnnotationAdapters(List<A> adapters, CommandRegisteringContext ctx) {
+        if (adapters.size() < 2) return adapters;
+        List<AnnotationAdapter<?,?>> key = (List<AnnotationAdapter<?,?>>) (List<?>) adapters;
+        List<AnnotationAdapter<?,?>> sorted = sortedAnnotationAdapters.get(key);
+        if (sorted == null) {
+            sorted = PrioritySorter.sort(key,(a,b)->a.getPriorityOn(b,ctx),true);
+            sortedAnnotationAdapters.put(new ArrayList<>(key),sorted);
         }
-        return adapters.isEmpty() ? null : adapters.get(0);
+        return new ArrayList<>((List<A>) (List<?>) sorted);
     }
 
-    public ParamAnnotationAdapter<?> getParamAnnotationAdapter(Class<? extends Annotation> annotationType) {
+    public synchronized ParamAnnotationAdapter<?> getParamAnnotationAdapter(Class<? extends Annotation> annotationType) {
         for (ParamAnnotationAdapter<?> a : paramAnnotationAdapters) {
             if (a.getType() == annotationType) return a;
         }
         return null;
     }
 
-    public MethodAnnotationAdapter<?> getMethodAnnotationAdapter(Class<? extends Annotation> annotationType) {
+    public synchronized MethodAnnotationAdapter<?> getMethodAnnotationAdapter(Class<? extends Annotation> annotationType) {
         for (MethodAnnotationAdapter<?> a : methodAnnotationAdapters) {
             if (a.getType() == annotationType) return a;
         }
         return null;
     }
 
-    public void addArgumentAdapter(ArgumentAdapter<?> adapter) {
+    public synchronized void addArgumentAdapter(ArgumentAdapter<?> adapter) {
         argumentAdapters.add(adapter);
+        invalidateArgumentAdapters();
     }
 
-    public <T> void addArgumentAdapter(Class<T> type, ArgumentParser<T> parser) {
+    public synchronized <T> void addArgumentAdapter(Class<T> type, ArgumentParser<T> parser) {
         addArgumentAdapter(new SimpleArgumentAdapter<>(type,parser));
     }
 
-    public void addParamAnnotationAdapter(ParamAnnotationAdapter<?> adapter) {
+    public synchronized void addParamAnnotationAdapter(ParamAnnotationAdapter<?> adapter) {
         paramAnnotationAdapters.add(adapter);
+        sortedAnnotationAdapters.clear();
     }
 
-    public void addMethodAnnotationAdapter(MethodAnnotationAdapter<?> adapter) {
+    public synchronized void addMethodAnnotationAdapter(MethodAnnotationAdapter<?> adapter) {
         methodAnnotationAdapters.add(adapter);
+        sortedAnnotationAdapters.clear();
     }
 
-    public void removeArgumentAdapter(ArgumentAdapter<?> adapter) {
+    public synchronized void removeArgumentAdapter(ArgumentAdapter<?> adapter) {
         argumentAdapters.remove(adapter);
+        invalidateArgumentAdapters();
     }
 
-    public void removeParamAnnotationAdapter(ParamAnnotationAdapter<?> adapter) {
+    public synchronized void removeParamAnnotationAdapter(ParamAnnotationAdapter<?> adapter) {
         paramAnnotationAdapters.remove(adapter);
+        sortedAnnotationAdapters.clear();
     }
 
-    public void removeMethodAnnotationAdapter(MethodAnnotationAdapter<?> adapter) {
+    public synchronized void removeMethodAnnotationAdapter(MethodAnnotationAdapter<?> adapter) {
         methodAnnotationAdapters.remove(adapter);
+        sortedAnnotationAdapters.clear();
     }
 
-    public void removeArgumentAdapters(Class<?> type) {
+    public synchronized void removeArgumentAdapters(Class<?> type) {
         argumentAdapters.removeIf(a->type.isAssignableFrom(a.getType()));
+        invalidateArgumentAdapters();
     }
 
-    public void removeParamAnnotationAdapters(Class<? extends Annotation> annotationType) {
+    public synchronized void removeParamAnnotationAdapters(Class<? extends Annotation> annotationType) {
         paramAnnotationAdapters.removeIf(a->a.getType() == annotationType);
+        sortedAnnotationAdapters.clear();
     }
 
-    public void removeMethodAnnotationAdapters(Class<? extends Annotation> annotationType) {
+    public synchronized void removeMethodAnnotationAdapters(Class<? extends Annotation> annotationType) {
         methodAnnotationAdapters.removeIf(a->a.getType() == annotationType);
+        sortedAnnotationAdapters.clear();
     }
 
     /**
@@ -327,22 +527,33 @@ public class Hurricane extends CustomDataHolder {
      * @return An object representing the compiled parsing results, to be saved for later or passed to {@link #execute(CommandExecutionContext)}.
      */
     public CommandExecutionContext parse(CommandSender sender, String input) throws CommandParsingException {
-        log("parsing command: " + input);
+        if (isLogging(LogLevel.TRACE)) {
+            log(LogLevel.TRACE,"parsing command: " + input);
+        }
+        CommandMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
         InputReader reader = new InputReader(input);
         CommandExecutionContext ctx = new CommandExecutionContext(this,sender,reader);
-        for (CustomCommand cmd : registeredCommands) {
-            Optional<String> opt = reader.readOneOf(cmd.getNames().toArray(new String[0]));
-            if (reader.canRead() && reader.peek() != ' ') continue;
-            if (opt.isPresent()) {
-                if (cmd.canUse(sender)) {
-                    cmd.parse(reader, ctx);
-                    return ctx;
-                } else {
-                    throw new CommandParsingException(cmd.getNoPermsMessage());
-                }
-            }
+        // root commands are always matched ignoring case, only sub-commands follow the setting
+        List<CustomCommand> candidates = registered.index.read(reader,true);
+        if (candidates.isEmpty()) {
+            if (metrics != null) metrics.recordUnknownCommand();
+            throw new CommandParsingException("Unknown command /" + reader.readWord());
+        }
+        if (metrics == null) {
+            CustomCommand.parseCandidates(candidates,reader,ctx);
+            ((CustomCommand) ctx.getExecutor()).postParse(ctx);
+            return ctx;
+        }
+        try {
+            CustomCommand.parseCandidates(candidates,reader,ctx);
+            ((CustomCommand) ctx.getExecutor()).postParse(ctx);
+        } catch (CommandParsingException e) {
+            metrics.recordParseError(ctx.getExecutor() instanceof CustomCommand ? (CustomCommand) ctx.getExecutor() : candidates.get(0),e);
+            throw e;
         }
-        throw new CommandParsingException("Unknown command /" + reader.readWord());
+        metrics.recordParse(ctx.getExecutor() instanceof CustomCommand ? (CustomCommand) ctx.getExecutor() : candidates.get(0),System.nanoTime() - start);
+        return ctx;
         //return parseNodes(getRoot(), reader, ctx);
     }
 
@@ -425,24 +636,210 @@ public class Hurricane extends CustomDataHolder {
      * @throws CommandFailedException When an <b>unexpected</b> error occurs while executing the command.
      */
     public CommandResult<?> execute(CommandExecutionContext ctx) throws CommandParsingException, CommandFailedException {
-        log("executing command /" + ctx.getReader().getString());
-        if (ctx.getExecutor() != null) {
-            return ctx.getExecutor().execute(ctx);
+        if (isLogging(LogLevel.TRACE)) {
+            log(LogLevel.TRACE,"executing command /" + ctx.getReader().getString());
+        }
+        CommandExecutor executor = ctx.getExecutor();
+        if (executor == null) {
+            throw new CommandParsingException("Invalid command",ctx.getReader().markerSince(0));
+        }
+        long timeout = getExecutionTimeout(executor);
+        if (timeout > 0) {
+            ctx.setDeadline(System.nanoTime() + timeout);
+        }
+        CommandMetrics metrics = this.metrics;
+        CommandExecutionContext previous = ctx.enter();
+        try {
+            if (metrics == null || !(executor instanceof CustomCommand)) {
+                return executor.execute(ctx);
+            }
+            long start = System.nanoTime();
+            CommandResult<?> result = null;
+            try {
+                result = executor.execute(ctx);
+                return result;
+            } finally {
+                metrics.recordExecution((CustomCommand) executor,System.nanoTime() - start,result != null && result.isSuccessful());
+            }
+        } finally {
+            CommandExecutionContext.restore(previous);
         }
-        throw new CommandParsingException("Invalid command",ctx.getReader().markerSince(0));
     }
 
-    public CustomCommand getCommand(String name) {
-        for (CustomCommand cmd : getCommands()) {
-            if (cmd.nameMatches(name)) {
-                return cmd;
+    /**
+     * Parses a command input on the calling thread, and executes it on the command's {@link #getAsyncExecutor(CommandExecutor) async executor}.
+     * @param sender The source of execution
+     * @param input The command input line to parse
+     * @return A future of the {@link CommandResult}. It completes exceptionally with a {@link CommandParsingException} if the input could not be parsed,
+     * or with a {@link CommandFailedException} when an <b>unexpected</b> error occurs while executing the command.
+     */
+    public CompletableFuture<CommandResult<?>> executeAsync(CommandSender sender, String input) {
+        CommandExecutionContext ctx;
+        try {
+            ctx = parse(sender,input);
+        } catch (CommandParsingException e) {
+            CompletableFuture<CommandResult<?>> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return executeAsync(ctx);
+    }
+
+    /**
+     * Executes a command from a {@link CommandExecutionContext} object on the command's {@link #getAsyncExecutor(CommandExecutor) async executor},
+     * when the {@link #setScheduler(CommandScheduler) scheduler} lets it run.
+     * The context is handed over to the executing thread, and should not be used by the calling thread until the future completes.
+     * @param ctx The context object returned from {@link #parse(CommandSender, String)}
+     * <p>
+     * If the command runs longer than its {@link #getExecutionTimeout(CommandExecutor) timeout}, the future completes with a {@link CommandResult#timeout(String) timeout result}
+     * and the context is {@link CommandExecutionContext#cancel() cancelled}, without waiting for the command to return.
+     * Cancelling the future cancels the context as well.
+     * @return A future of the {@link CommandResult}, completing exceptionally like {@link #execute(CommandExecutionContext)} would throw.
+     * If the scheduler or the executor rejects the command, it completes with the {@link RejectedExecutionException}.
+     */
+    public CompletableFuture<CommandResult<?>> executeAsync(CommandExecutionContext ctx) {
+        CompletableFuture<CommandResult<?>> future = new CompletableFuture<>();
+        future.whenComplete((r,e)->{
+            if (future.isCancelled()) ctx.cancel();
+        });
+        try {
+            scheduler.schedule(ctx,getAsyncExecutor(ctx.getExecutor()),()->{
+                if (future.isDone()) return;
+                long timeout = getExecutionTimeout(ctx.getExecutor());
+                ScheduledFuture<?> timer = timeout > 0 ? scheduleTimeout(ctx,future,timeout) : null;
+                try {
+                    future.complete(execute(ctx));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    if (timer != null) timer.cancel(false);
+                }
+            },future);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Completes the future of a command with a timeout result when the timeout passes, unless the command is done by then.
+     */
+    private ScheduledFuture<?> scheduleTimeout(CommandExecutionContext ctx, CompletableFuture<CommandResult<?>> future, long timeout) {
+        return TimeoutTimer.TIMER.schedule(()->{
+            if (future.complete(CommandResult.timeout("The command timed out after " + TimeUnit.NANOSECONDS.toMillis(timeout) + "ms"))) {
+                ctx.cancel();
+                log(LogLevel.WARN,()->"Command timed out: /" + ctx.getReader().getString());
+                CommandMetrics metrics = this.metrics;
+                if (metrics != null && ctx.getExecutor() instanceof CustomCommand) {
+                    metrics.recordTimeout((CustomCommand) ctx.getExecutor());
+                }
+            }
+        },timeout,TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the timeout of a command in nanoseconds: the {@link Timeout.Adapter#TIMEOUT} of the command or its closest parent
+     * (see {@link CustomCommand#getExecutionSettings()}), or the {@link #setExecutionTimeout(long, TimeUnit) execution timeout} of the API.
+     * @return The timeout, or 0 if the command has no timeout
+     */
+    public long getExecutionTimeout(CommandExecutor executor) {
+        if (executor instanceof CustomCommand) {
+            Long timeout = ((CustomCommand) executor).getExecutionSettings().getTimeout();
+            if (timeout != null) return timeout;
+        }
+        return executionTimeout;
+    }
+
+    /**
+     * Sets how long commands can run, unless they set their own timeout with {@link Timeout}. By default commands have no timeout.
+     * <p>
+     * When a command runs past its timeout, {@link CommandExecutionContext#isCancelled()} becomes true.
+     * Commands executed with {@link #executeAsync(CommandExecutionContext)} also complete right away with a {@link CommandResult#isTimedOut() timeout result},
+     * freeing their caller and their scheduler slot even if the command keeps running.
+     * @param timeout The timeout, or 0 for no timeout
+     * @param unit The unit of the timeout
+     */
+    public void setExecutionTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative: " + timeout);
+        }
+        this.executionTimeout = unit.toNanos(timeout);
+    }
+
+    /**
+     * Gets the executor that runs a command asynchronously: the executor named by the {@link Async.Adapter#EXECUTOR} of the command or its closest parent
+     * (see {@link CustomCommand#getExecutionSettings()}), or the {@link #setAsyncExecutor(Executor) default async executor}.
+     * @throws RejectedExecutionException If the command names an executor that wasn't {@link #addAsyncExecutor(String, Executor) added}
+     */
+    public Executor getAsyncExecutor(CommandExecutor executor) {
+        if (executor instanceof CustomCommand) {
+            String name = ((CustomCommand) executor).getExecutionSettings().getExecutor();
+            if (name != null) {
+                Executor named = asyncExecutors.get(name);
+                if (named == null) {
+                    throw new RejectedExecutionException("No async executor named '" + name + "' for /" + ((CustomCommand) executor).getPath());
+                }
+                return named;
             }
         }
-        return null;
+        return asyncExecutor;
+    }
+
+    public CommandScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Changes the scheduler that decides when asynchronously executed commands run.
+     * The default {@link CommandScheduler#DIRECT direct} scheduler runs them right away, so commands of the same sender may run at the same time.
+     * Use a {@link com.shinybunny.hurricane.scheduling.LaneScheduler} to run the commands of each sender in order.
+     */
+    public void setScheduler(CommandScheduler scheduler) {
+        this.scheduler = Objects.requireNonNull(scheduler);
+    }
+
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Changes the executor used by {@link #executeAsync(CommandSender, String)} for commands that don't choose one with {@link Async}.
+     * By default, commands run on the {@link ForkJoinPool#commonPool() common pool}, which is meant for short tasks.
+     * Commands that block should run on an executor of their own, or on {@link VirtualThreads#newExecutor() virtual threads} when they are supported.
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = Objects.requireNonNull(asyncExecutor);
     }
 
+    /**
+     * Adds a named executor that commands can run on with {@link Async}.
+     * @param name The name used in {@link Async#value()}
+     * @param executor The executor
+     */
+    public void addAsyncExecutor(String name, Executor executor) {
+        asyncExecutors.put(name,Objects.requireNonNull(executor));
+    }
+
+    /**
+     * Gets an executor added with {@link #addAsyncExecutor(String, Executor)}, or <code>null</code> if no executor has this name.
+     */
+    public Executor getAsyncExecutor(String name) {
+        return asyncExecutors.get(name);
+    }
+
+    /**
+     * Gets the first registered command with this name or alias, ignoring case.
+     */
+    public CustomCommand getCommand(String name) {
+        List<CustomCommand> matching = registered.index.get(name,true);
+        return matching.isEmpty() ? null : matching.get(0);
+    }
+
+    /**
+     * Gets the registered commands, as of the time of this call. The list can't be modified.
+     */
     public List<CustomCommand> getCommands() {
-        return registeredCommands;
+        return registered.commands;
     }
 
     public static final Map<Class<?>, Class<?>> PRIMITIVES_TO_WRAPPERS = new HashMap<Class<?>, Class<?>>() {
@@ -479,4 +876,137 @@ public class Hurricane extends CustomDataHolder {
     public void setDefaultNoPermsMessage(String defaultNoPermsMessage) {
         this.defaultNoPermsMessage = defaultNoPermsMessage;
     }
+
+    /**
+     * The single daemon thread that completes the futures of timed out commands, created when a timeout is first used
+     */
+    private static final class TimeoutTimer {
+
+        static final ScheduledThreadPoolExecutor TIMER = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,r->{
+                Thread t = new Thread(r,"hurricane-timeouts");
+                t.setDaemon(true);
+                return t;
+            });
+            // commands that finish in time cancel their timers, which shouldn't stay in the queue until they would have run
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the registered commands and the index of their names.
+     */
+    private static final class RegisteredCommands {
+
+        static final RegisteredCommands EMPTY = new RegisteredCommands(new CommandList(new CustomCommand[0],0),new LiteralTrie<>());
+
+        /**
+         * The commands in registration order
+         */
+        final CommandList commands;
+        /**
+         * An index of the names and aliases of all the commands, used to resolve the command of an input in a single pass.
+         */
+        final LiteralTrie<CustomCommand> index;
+
+        private RegisteredCommands(CommandList commands, LiteralTrie<CustomCommand> index) {
+            this.commands = commands;
+            this.index = index;
+        }
+
+        /**
+         * Creates a snapshot with the command added. The index shares all of its unchanged nodes with this snapshot.
+         */
+        RegisteredCommands with(CustomCommand cmd) {
+            LiteralTrie<CustomCommand> newIndex = index;
+            for (String name : cmd.getNames()) {
+                newIndex = newIndex.with(name,cmd);
+            }
+            return new RegisteredCommands(commands.with(cmd),newIndex);
+        }
+    }
+
+    /**
+     * An unmodifiable list of commands that is appended to in amortized constant time.
+     * <p>
+     * Appending writes the command into the array shared with this list, past its size, and returns a longer view of the same array.
+     * The array is only copied when it's full, or when this list was already appended to, so a list never sees the elements appended after it was created.
+     * Appending is not thread safe, and is done while holding the lock of the {@link Hurricane} instance.
+     */
+    private static final class CommandList extends AbstractList<CustomCommand> implements RandomAccess {
+
+        private final CustomCommand[] array;
+        private final int size;
+        /**
+         * Whether a longer list was already created over the same array
+         */
+        private boolean extended;
+
+        private CommandList(CustomCommand[] array, int size) {
+            this.array = array;
+            this.size = size;
+        }
+
+        CommandList with(CustomCommand cmd) {
+            CustomCommand[] a = array;
+            if (extended || size == a.length) {
+                a = Arrays.copyOf(a,Math.max(16,size + (size >> 1)));
+            }
+            a[size] = cmd;
+            extended = true;
+            return new CommandList(a,size + 1);
+        }
+
+        @Override
+        public CustomCommand get(int index) {
+            if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            return array[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * The {@link CommandRegistry command registries} of a class loader by their container class, and the errors of the ones that couldn't be loaded.
+     */
+    private static final class CompiledRegistries {
+
+        private final Map<Class<?>, CommandRegistry> registries = new HashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        /**
+         * Set once the errors were logged, so they are logged only once
+         */
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private CompiledRegistries(ClassLoader loader) {
+            Iterator<CommandRegistry> it = ServiceLoader.load(CommandRegistry.class,loader).iterator();
+            while (true) {
+                try {
+                    if (!it.hasNext()) break;
+                    CommandRegistry r = it.next();
+                    registries.put(r.getContainerType(),r);
+                } catch (ServiceConfigurationError e) {
+                    errors.add(e.getMessage());
+                }
+            }
+        }
+
+        private static CompiledRegistries of(ClassLoader loader) {
+            synchronized (LOADED_REGISTRIES) {
+                WeakReference<CompiledRegistries> ref = LOADED_REGISTRIES.get(loader);
+                CompiledRegistries compiled = ref == null ? null : ref.get();
+                if (compiled == null) {
+                    compiled = new CompiledRegistries(loader);
+                    LOADED_REGISTRIES.put(loader,new WeakReference<>(compiled));
+                }
+                return compiled;
+            }
+        }
+    }
 }
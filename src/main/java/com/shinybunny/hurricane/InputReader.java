@@ -4,11 +4,30 @@ import com.shinybunny.hurricane.util.CommandParsingException;
 import com.shinybunny.hurricane.util.InvalidNumberException;
 import org.intellij.lang.annotations.RegExp;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class InputReader {
 
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    private static final String LONG_MAX_DIGITS = "9223372036854775807";
+    private static final String LONG_MIN_DIGITS = "9223372036854775808";
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final long MAX_EXACT_FLOAT = 1L << 24;
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
     private String input;
     private int pos;
 
@@ -53,54 +72,134 @@ public class InputReader {
     }
 
     public int readInteger() throws InvalidNumberException {
-        return readNumber(Integer::parseInt);
+        return (int) readIntegral(Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     public double readDouble() throws InvalidNumberException {
-        return readNumber(Double::parseDouble);
+        return toDouble(scanNumber());
+    }
+
+    private double toDouble(int start) throws InvalidNumberException {
+        long mantissa = readMantissa(start, MAX_EXACT_DOUBLE);
+        int fraction = fractionDigits(start);
+        if (mantissa < 0 || fraction >= DOUBLE_POWERS_OF_TEN.length) {
+            return Double.parseDouble(input.substring(start, pos));
+        }
+        // both operands are exact doubles, so a single division is correctly rounded
+        double d = mantissa / DOUBLE_POWERS_OF_TEN[fraction];
+        return input.charAt(start) == '-' ? -d : d;
     }
 
     public float readFloat() throws InvalidNumberException {
-        return readNumber(Float::parseFloat);
+        int start = scanNumber();
+        long mantissa = readMantissa(start, MAX_EXACT_FLOAT);
+        int fraction = fractionDigits(start);
+        if (mantissa < 0 || fraction >= FLOAT_POWERS_OF_TEN.length) {
+            return Float.parseFloat(input.substring(start, pos));
+        }
+        float f = mantissa / FLOAT_POWERS_OF_TEN[fraction];
+        return input.charAt(start) == '-' ? -f : f;
     }
 
     public long readLong() throws InvalidNumberException {
-        return readNumber(Long::parseLong);
+        return readIntegral(Long.MIN_VALUE, Long.MAX_VALUE);
     }
 
     public short readShort() throws InvalidNumberException {
-        return readNumber(Short::parseShort);
+        return (short) readIntegral(Short.MIN_VALUE, Short.MAX_VALUE);
     }
 
     public byte readByte() throws InvalidNumberException {
-        return readNumber(Byte::parseByte);
-    }
-
-    public <N extends Number> N readNumber(Function<String,N> parser) throws InvalidNumberException {
-        int pos = this.pos;
-        String str = "";
-        boolean hasDigits = false;
-        if (skip('-')) {
-            str += "-";
+        return (byte) readIntegral(Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    /**
+     * Reads an integral number, accumulating its digits straight from the input.
+     * Decimal numbers and numbers out of the range are reported as invalid, covering the entire number that was read.
+     */
+    private long readIntegral(long min, long max) throws InvalidNumberException {
+        return toIntegral(scanNumber(), min, max);
+    }
+
+    private long toIntegral(int start, long min, long max) throws InvalidNumberException {
+        int i = start;
+        boolean negative = input.charAt(i) == '-';
+        if (negative) i++;
+        if (i == pos) throw invalidNumber(start);
+        // accumulating negatively, since the negative range is larger than the positive one
+        long limit = negative ? min : -max;
+        long multMin = limit / 10;
+        long result = 0;
+        for (; i < pos; i++) {
+            char c = input.charAt(i);
+            if (!isDigit(c) || result < multMin) throw invalidNumber(start);
+            int digit = c - '0';
+            result *= 10;
+            if (result < limit + digit) throw invalidNumber(start);
+            result -= digit;
         }
-        str += readPattern("[0-9]*");
-        if (!str.isEmpty()) hasDigits = true;
+        return negative ? result : -result;
+    }
+
+    /**
+     * Moves over a number in the form of <code>[-]digits[.digits]</code>.
+     * @return The start position of the number
+     * @throws InvalidNumberException If there are no digits (or minus sign) to read
+     */
+    private int scanNumber() throws InvalidNumberException {
+        int start = pos;
+        boolean hasDigits = skip('-');
+        if (skipWhile(InputReader::isDigit) > start) hasDigits = true;
         if (skip('.')) {
-            str += ".";
-            String dec = readPattern("[0-9]*");
-            if (!dec.isEmpty()) hasDigits = true;
-            str += dec;
+            int dec = pos;
+            if (skipWhile(InputReader::isDigit) > dec) hasDigits = true;
         }
-        N number;
         if (!hasDigits) {
-            throw new InvalidNumberException("Expected a number",markerSince(pos));
+            throw new InvalidNumberException("Expected a number",markerSince(start));
+        }
+        return start;
+    }
+
+    /**
+     * Accumulates all the digits of the number read since <code>start</code>, ignoring the sign and the decimal point.
+     * @param maxExact The largest mantissa that can be represented exactly in the target type
+     * @return The mantissa, or -1 if it is larger than <code>maxExact</code>
+     * @throws InvalidNumberException If the number has no digits at all
+     */
+    private long readMantissa(int start, long maxExact) throws InvalidNumberException {
+        long mantissa = 0;
+        boolean hasDigits = false;
+        for (int i = start; i < pos; i++) {
+            char c = input.charAt(i);
+            if (isDigit(c)) {
+                hasDigits = true;
+                if (mantissa >= 0) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa > maxExact) mantissa = -1;
+                }
+            }
         }
+        if (!hasDigits) throw invalidNumber(start);
+        return mantissa;
+    }
+
+    private int fractionDigits(int start) {
+        int dot = input.indexOf('.', start);
+        return dot < 0 || dot >= pos ? 0 : pos - dot - 1;
+    }
+
+    private InvalidNumberException invalidNumber(int start) {
+        return new InvalidNumberException("Invalid number " + input.substring(start, pos),markerSince(start));
+    }
+
+    public <N extends Number> N readNumber(Function<String,N> parser) throws InvalidNumberException {
+        int pos = scanNumber();
+        String str = input.substring(pos,this.pos);
         try {
-            number = parser.apply(str);
+            return parser.apply(str);
         } catch (NumberFormatException e) {
             throw new InvalidNumberException("Invalid number " + str,e,markerSince(pos));
         }
-        return number;
     }
 
     private boolean skip(char c) {
@@ -111,16 +210,39 @@ public class InputReader {
         return false;
     }
 
+    /**
+     * Reads the longest string from the current position in which every prefix fully matches the regex.
+     * The compiled pattern is cached, so prefer {@link #readWhile(IntPredicate)} when testing single characters is enough.
+     */
     public String readPattern(@RegExp String regex) {
-        String str = "";
-        while (canRead()) {
-            String curr = str + peek();
-            if (!curr.matches(regex)) {
-                break;
-            }
-            str += next();
+        Matcher m = PATTERNS.computeIfAbsent(regex, Pattern::compile).matcher(input);
+        int start = pos;
+        int end = pos;
+        while (end < input.length()) {
+            m.region(start, end + 1);
+            if (!m.matches()) break;
+            end++;
         }
-        return str;
+        pos = end;
+        return input.substring(start, end);
+    }
+
+    /**
+     * Moves forward as long as the current character matches the predicate.
+     * @return The new position of the reader
+     */
+    public int skipWhile(IntPredicate predicate) {
+        int len = input.length();
+        while (pos < len && predicate.test(input.charAt(pos))) pos++;
+        return pos;
+    }
+
+    /**
+     * Reads a string of all the characters from the current position matching the predicate.
+     */
+    public String readWhile(IntPredicate predicate) {
+        int start = pos;
+        return input.substring(start, skipWhile(predicate));
     }
 
     public String readQuotableString() {
@@ -153,18 +275,44 @@ public class InputReader {
     }
 
     public String readUntil(char c, char escapeChar) {
-        String s = "";
-        while (canRead()) {
-            if (peek() == escapeChar) {
-                next();
-            } else if (peek() == c) break;
-            s += next();
+        int start = pos;
+        int len = input.length();
+        int i = start;
+        while (i < len) {
+            char ch = input.charAt(i);
+            if (ch == escapeChar) break;
+            if (ch == c) {
+                pos = i;
+                return input.substring(start, i);
+            }
+            i++;
         }
-        return s;
+        if (i == len) {
+            pos = len;
+            return input.substring(start);
+        }
+        // an escape character was found, so the result is no longer a plain slice of the input
+        StringBuilder b = new StringBuilder(len - start).append(input, start, i);
+        while (i < len) {
+            char ch = input.charAt(i);
+            if (ch == escapeChar) {
+                if (++i == len) break;
+                ch = input.charAt(i);
+            } else if (ch == c) {
+                break;
+            }
+            b.append(ch);
+            i++;
+        }
+        pos = i;
+        return b.toString();
     }
 
     public String readWord() {
-        return readUntil(' ', (char) 0);
+        int start = pos;
+        int end = input.indexOf(' ', start);
+        pos = end < 0 ? input.length() : end;
+        return input.substring(start, pos);
     }
 
     public void skipSpace() {
@@ -217,31 +365,54 @@ public class InputReader {
         }
     }
 
+    /**
+     * Reads a number of any type, in a single scan of the input.
+     * Integral numbers are returned as the narrowest type that fits them out of byte, short, int and long.
+     * Decimal numbers, and integral numbers too large for a long, are returned as doubles.
+     */
     public Number readAnyNumber() throws InvalidNumberException {
-        try {
-            return readByte();
-        } catch (InvalidNumberException e) {
-            try {
-                return readShort();
-            } catch (InvalidNumberException e2) {
-                try {
-                    return readInteger();
-                } catch (InvalidNumberException e3) {
-                    try {
-                        return readLong();
-                    } catch (InvalidNumberException e4) {
-                        try {
-                            return readDouble();
-                        } catch (InvalidNumberException e5) {
-                            return readFloat();
-                        }
-                    }
-                }
-            }
+        int start = scanNumber();
+        int dot = input.indexOf('.', start);
+        if ((dot >= 0 && dot < pos) || !fitsLong(start)) {
+            return toDouble(start);
+        }
+        long value = toIntegral(start, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) return (byte) value;
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) return (short) value;
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) return (int) value;
+        return value;
+    }
+
+    /**
+     * Checks whether the integral number read since <code>start</code> fits in a long, by its digits alone.
+     */
+    private boolean fitsLong(int start) {
+        int i = start;
+        boolean negative = input.charAt(i) == '-';
+        if (negative) i++;
+        while (i < pos && input.charAt(i) == '0') i++;
+        int digits = pos - i;
+        if (digits != LONG_MAX_DIGITS.length()) return digits < LONG_MAX_DIGITS.length();
+        String limit = negative ? LONG_MIN_DIGITS : LONG_MAX_DIGITS;
+        for (int k = 0; k < digits; k++) {
+            char c = input.charAt(i + k);
+            if (c != limit.charAt(k)) return c < limit.charAt(k);
         }
+        return true;
     }
 
     public String readIdentifier() {
-        return readPattern("\\w+");
+        return readWhile(InputReader::isWordChar);
+    }
+
+    public static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Whether the character is a word character, the same as the regex <code>\w</code>.
+     */
+    public static boolean isWordChar(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
     }
 }
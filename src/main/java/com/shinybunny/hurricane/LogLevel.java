@@ -0,0 +1,35 @@
+package com.shinybunny.hurricane;
+
+/**
+ * The importance of a message logged by the API, from the most detailed to the most severe.
+ * @see CommandLogger
+ */
+public enum LogLevel {
+    /**
+     * Every step of parsing and executing commands, including the values of arguments
+     */
+    TRACE,
+    /**
+     * Registration of commands and other setup details
+     */
+    DEBUG,
+    /**
+     * General information, the level of messages logged with {@link Hurricane#log(String)}
+     */
+    INFO,
+    /**
+     * Problems the API recovered from, like an invalid command registry that was skipped
+     */
+    WARN,
+    /**
+     * Failures
+     */
+    ERROR;
+
+    /**
+     * Checks whether this level is at least as severe as the other level.
+     */
+    public boolean isAtLeast(LogLevel other) {
+        return ordinal() >= other.ordinal();
+    }
+}
@@ -1,9 +1,28 @@
 package com.shinybunny.hurricane;
 
+/**
+ * The priority an adapter has on another adapter, when both apply to the same element.
+ * @see com.shinybunny.hurricane.util.PrioritySorter
+ */
 public enum Priority {
+    /**
+     * No preference, the adapters keep their registration order
+     */
     DEFAULT,
+    /**
+     * This adapter should come before the other
+     */
     BEFORE,
+    /**
+     * This adapter should come after the other
+     */
     AFTER,
+    /**
+     * This adapter replaces the other
+     */
     OVERSHADOW,
+    /**
+     * No preference. Kept for compatibility, adapters are never ordered randomly, so it's the same as {@link #DEFAULT}
+     */
     RANDOM;
 }
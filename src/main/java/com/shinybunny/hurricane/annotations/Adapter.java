@@ -12,6 +12,6 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Adapter {
 
-    Class<? extends AnnotationAdapter> value();
+    Class<? extends AnnotationAdapter<?,?>> value();
 
 }
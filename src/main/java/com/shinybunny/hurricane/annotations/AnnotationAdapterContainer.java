@@ -1,6 +1,7 @@
 package com.shinybunny.hurricane.annotations;
 
 import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.Hurricane;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
 import com.shinybunny.hurricane.util.CustomDataHolder;
 
@@ -8,33 +9,41 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 public interface AnnotationAdapterContainer<A extends AnnotationAdapter> {
 
+    /**
+     * Resolves the adapters of all annotations declared on this container, ordered by their priorities.
+     * <p>
+     * Adapters declared with {@link Adapter} and dummy adapters are shared by the whole {@link Hurricane} instance,
+     * and the order of every distinct list of adapters is only computed once.
+     * @param ctx The current command registering context
+     * @return The adapters that can apply to this container, in the order they should be used
+     */
     default List<A> resolveAnnotationAdapters(CommandRegisteringContext ctx) {
+        Hurricane api = ctx.getApi();
         List<A> adapters = new ArrayList<>();
-        for (Annotation a : getAnnotatedElement().getAnnotations()) {
-            if (a.annotationType() == Command.class) continue;
-            A adapter = getAdapterFor(ctx,a.annotationType());
+        for (Annotation a : getAnnotations()) {
+            Class<? extends Annotation> type = a.annotationType();
+            if (type == Command.class) continue;
+            A adapter = getAdapterFor(ctx,type);
             if (adapter == null) {
-                Adapter aa = a.annotationType().getAnnotation(Adapter.class);
-                DummyAdapter dummy = a.annotationType().getAnnotation(DummyAdapter.class);
+                Adapter aa = type.getAnnotation(Adapter.class);
                 if (aa == null) {
+                    DummyAdapter dummy = type.getAnnotation(DummyAdapter.class);
                     if (dummy == null) {
-                        ctx.addError("No adapter found for annotation type " + a.annotationType() + " on " + this);
+                        ctx.addError("No adapter found for annotation type " + type + " on " + this);
                         continue;
-                    } else {
-                        adapter = dummyAdapter(a.annotationType());
-                        if (!dummy.flag().isEmpty()) {
-                            getDataHolder().addFlag(dummy.flag());
-                        }
+                    }
+                    adapter = api.getDummyAdapter(this,type);
+                    if (!dummy.flag().isEmpty()) {
+                        getDataHolder().addFlag(dummy.flag());
                     }
                 } else {
                     try {
-                        adapter = (A) aa.value().newInstance();
-                    } catch (InstantiationException | IllegalAccessException e) {
-                        ctx.addError(new CommandRegisterFailedException(e));
+                        adapter = (A) api.getSharedAdapter(aa.value());
+                    } catch (CommandRegisterFailedException e) {
+                        ctx.addError(e);
                         continue;
                     }
                 }
@@ -42,55 +51,10 @@ public interface AnnotationAdapterContainer<A extends AnnotationAdapter> {
             if (adapter.canApply(a,this,ctx)) {
                 adapters.add(adapter);
             } else {
-                ctx.addError("Adapter for " + a.annotationType() + " cannot be applied to " + this);
+                ctx.addError("Adapter for " + type + " cannot be applied to " + this);
             }
         }
-        Random r = new Random();
-        for (int i = 0; i < adapters.size() - 1; i++) {
-            A a = adapters.get(i);
-            for (int j = i + 1; j < adapters.size(); j++) {
-                A b = adapters.get(j);
-                switch (a.getPriorityOn(b,ctx)) {
-                    case DEFAULT:
-                    case BEFORE:
-                        break;
-                    case AFTER:
-                        adapters.set(j,a);
-                        adapters.set(i,b);
-                        break;
-                    case RANDOM:
-                        if (r.nextBoolean()) {
-                            adapters.set(j,a);
-                            adapters.set(i,b);
-                        }
-                        break;
-                    case OVERSHADOW:
-                        adapters.remove(j);
-                        j++;
-                        break;
-                }
-                switch (b.getPriorityOn(a,ctx)) {
-                    case DEFAULT:
-                    case AFTER:
-                        break;
-                    case BEFORE:
-                        adapters.set(j,a);
-                        adapters.set(i,b);
-                        break;
-                    case RANDOM:
-                        if (r.nextBoolean()) {
-                            adapters.set(j,a);
-                            adapters.set(i,b);
-                        }
-                        break;
-                    case OVERSHADOW:
-                        adapters.remove(i);
-                        i--;
-                        break;
-                }
-            }
-        }
-        return adapters;
+        return api.sortAnnotationAdapters(adapters,ctx);
     }
 
     A dummyAdapter(Class<? extends Annotation> annotationType);
@@ -99,6 +63,13 @@ public interface AnnotationAdapterContainer<A extends AnnotationAdapter> {
 
     AnnotatedElement getAnnotatedElement();
 
+    /**
+     * Gets the annotations the adapters are resolved from. Defaults to the annotations of the {@link #getAnnotatedElement() annotated element}.
+     */
+    default Annotation[] getAnnotations() {
+        return getAnnotatedElement().getAnnotations();
+    }
+
     CustomDataHolder getDataHolder();
 
 }
@@ -1,6 +1,5 @@
 package com.shinybunny.hurricane.annotations;
 
-import com.shinybunny.hurricane.CommandExecutionContext;
 import com.shinybunny.hurricane.CommandRegisteringContext;
 import com.shinybunny.hurricane.tree.ParameterArgument;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
@@ -47,11 +46,6 @@ public @interface Arg {
                 container.setRequired(false);
             }
         }
-
-        @Override
-        public void validate(Object value, Arg annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
-
-        }
     }
 
 }
@@ -0,0 +1,60 @@
+package com.shinybunny.hurricane.annotations;
+
+import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.Key;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Chooses the executor that runs a command when it is executed with {@link Hurricane#executeAsync(com.shinybunny.hurricane.CommandSender, String)}.
+ * <pre>
+ * api.addAsyncExecutor("database",Executors.newFixedThreadPool(4));
+ * ...
+ * &#64;Command
+ * &#64;Async("database")
+ * public void lookup(String user) {
+ *     ...
+ * }
+ * </pre>
+ * Commands without this annotation run on the {@link Hurricane#setAsyncExecutor(java.util.concurrent.Executor) default async executor}.
+ * This annotation has no effect on {@link Hurricane#execute(com.shinybunny.hurricane.CommandSender, String)}, which always runs on the calling thread.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Adapter(Async.Adapter.class)
+public @interface Async {
+
+    /**
+     * The name of the executor, as added with {@link Hurricane#addAsyncExecutor(String, java.util.concurrent.Executor)}.
+     * The executor must be added before the command is registered.
+     */
+    String value();
+
+    class Adapter implements MethodAnnotationAdapter<Async> {
+
+        /**
+         * The name of the async executor of a command. Can also be set on commands that aren't method commands.
+         */
+        public static final Key<String> EXECUTOR = Key.create();
+
+        @Override
+        public Class<Async> getType() {
+            return Async.class;
+        }
+
+        @Override
+        public void init(Async instance, MethodCommand container, CommandRegisteringContext ctx) throws CommandRegisterFailedException {
+            if (ctx.getApi().getAsyncExecutor(instance.value()) == null) {
+                ctx.addError(new CommandRegisterFailedException("Unknown async executor '" + instance.value() + "' in @Async of " + container.getName()));
+                return;
+            }
+            container.set(EXECUTOR,instance.value());
+        }
+    }
+}
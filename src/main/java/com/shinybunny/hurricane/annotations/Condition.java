@@ -2,71 +2,211 @@ package com.shinybunny.hurricane.annotations;
 
 import com.shinybunny.hurricane.CommandExecutionContext;
 import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.tree.ArgumentPlan;
 import com.shinybunny.hurricane.tree.ParameterArgument;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.Key;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.util.Objects;
-import java.util.function.BiPredicate;
-import java.util.regex.Matcher;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+/**
+ * Validates the value of an argument by comparing it to the operand in {@link #value()} with the {@link #op() comparison}.
+ * <pre>
+ * &#64;Command
+ * public void rename(&#64;Condition(value = "[a-z_]+", op = Comparison.MATCHES_REGEX) String name) {
+ *     ...
+ * }
+ * </pre>
+ * The operand is parsed (and regular expressions are compiled) once, when the command is registered.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.PARAMETER)
 @Adapter(Condition.Adapter.class)
 public @interface Condition {
 
+    /**
+     * The operand to compare the value of the argument to: a number for numeric comparisons, a regular expression for regex comparisons, or a string
+     */
     String value();
 
     Comparison op();
 
     class Adapter implements ParamAnnotationAdapter<Condition> {
 
+        /**
+         * The compiled condition of an argument
+         */
+        public static final Key<Predicate<Object>> TEST = Key.create();
+
         @Override
         public Class<Condition> getType() {
             return Condition.class;
         }
 
         @Override
-        public void init(Condition instance, ParameterArgument container, CommandRegisteringContext ctx) throws CommandRegisterFailedException {
+        public boolean canApply(Condition instance, ParameterArgument container, CommandRegisteringContext ctx) {
+            return container.typeExtends(instance.op().getValueSuperType());
+        }
 
+        @Override
+        public void init(Condition instance, ParameterArgument container, CommandRegisteringContext ctx) throws CommandRegisterFailedException {
+            try {
+                container.set(TEST,instance.op().compile(instance.value(),container.getType()));
+            } catch (IllegalArgumentException e) {
+                ctx.addError(new CommandRegisterFailedException("Invalid @Condition operand '" + instance.value() + "' for " + instance.op() + " on " + container.getName() + ": " + e.getMessage(),e));
+            }
         }
 
         @Override
         public void validate(Object value, Condition annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
+            createValidator(annotation,argument).validate(value,ctx);
+        }
 
+        @Override
+        public ArgumentPlan.Validator createValidator(Condition annotation, ParameterArgument argument) {
+            Predicate<Object> test = argument.getOrDefault(TEST);
+            if (test == null) return (value,ctx)->{};
+            String error = annotation.op().getErrorMessage(argument.getName(),annotation.value());
+            return (value,ctx)->{
+                if (!test.test(value)) {
+                    throw new Exception(error);
+                }
+            };
         }
     }
 
     enum Comparison {
-        LESS_THAN(Number.class,(a,b)->a.doubleValue() < b.doubleValue(),"%s must be less than %d"),
-        GREATER_THAN(Number.class,(a,b)->a.doubleValue() > b.doubleValue(),"%s must be greater than %d"),
-        LESS_EQUAL(Number.class,(a,b)->a.doubleValue() <= b.doubleValue(),"%s must be less than or equal to %d"),
-        GREATER_EQUAL(Number.class,(a,b)->a.doubleValue() >= b.doubleValue(),"%s must be greater than or equal to %d"),
-        NOT_EQUAL(Object.class,(a,b)->!Objects.equals(a,b),"%s must not equal %s"),
-        CONTAINS(String.class, String::contains,"%s must contain %s"),
-        CONTAINS_REGEX(String.class, (a,b)->{
-            Matcher m = Pattern.compile(b).matcher(a);
-            return m.find();
+        LESS_THAN((a,b)->a < b,(a,b)->a < b,"%s must be less than %s"),
+        GREATER_THAN((a,b)->a > b,(a,b)->a > b,"%s must be greater than %s"),
+        LESS_EQUAL((a,b)->a <= b,(a,b)->a <= b,"%s must be less than or equal to %s"),
+        GREATER_EQUAL((a,b)->a >= b,(a,b)->a >= b,"%s must be greater than or equal to %s"),
+        NOT_EQUAL(Object.class,null,"%s must not equal %s"),
+        CONTAINS(String.class,b->a->((String)a).contains(b),"%s must contain %s"),
+        CONTAINS_REGEX(String.class,b->{
+            Pattern p = Pattern.compile(b);
+            return a->p.matcher((String)a).find();
         },"%s does not contain the regex %s"),
-        MATCHES_REGEX(String.class, String::matches,"%s must match regex %s");
-
-        private Class<?> valueSuperType;
-        private BiPredicate<?,?> predicate;
-        private String errorMessage;
+        MATCHES_REGEX(String.class,b->{
+            Pattern p = Pattern.compile(b);
+            return a->p.matcher((String)a).matches();
+        },"%s must match regex %s");
+
+        private final Class<?> valueSuperType;
+        private final NumberComparison numberComparison;
+        private final LongComparison longComparison;
+        private final Function<String,Predicate<Object>> compiler;
+        private final String errorMessage;
+
+        Comparison(NumberComparison numberComparison, LongComparison longComparison, String errorMessage) {
+            this.valueSuperType = Number.class;
+            this.numberComparison = numberComparison;
+            this.longComparison = longComparison;
+            this.compiler = null;
+            this.errorMessage = errorMessage;
+        }
 
-        <T> Comparison(Class<T> valueSuperType, BiPredicate<T, T> predicate, String errorMessage) {
+        Comparison(Class<?> valueSuperType, Function<String,Predicate<Object>> compiler, String errorMessage) {
             this.valueSuperType = valueSuperType;
-            this.predicate = predicate;
+            this.numberComparison = null;
+            this.longComparison = null;
+            this.compiler = compiler;
             this.errorMessage = errorMessage;
         }
 
+        /**
+         * Compiles the operand into a test of argument values.
+         * Number comparisons parse the operand once, and compare primitive longs when the argument is a whole number
+         * (so values above 2<sup>53</sup> compare exactly) and primitive doubles otherwise.
+         * {@link #NOT_EQUAL} compares numbers by value when the argument is a number, and anything else by its string form.
+         * @param operand The operand to compare values to
+         * @param type The type of the argument
+         * @return A predicate that is true when the value passes the condition
+         * @throws IllegalArgumentException If the operand is not a valid number or regular expression
+         */
+        public Predicate<Object> compile(String operand, Class<?> type) {
+            Long integral = isIntegral(type) ? parseLong(operand) : null;
+            if (numberComparison != null) {
+                if (integral != null) {
+                    long b = integral;
+                    return a->a instanceof Number && longComparison.test(((Number)a).longValue(),b);
+                }
+                double b = Double.parseDouble(operand);
+                return a->a instanceof Number && numberComparison.test(((Number)a).doubleValue(),b);
+            }
+            if (this == NOT_EQUAL) {
+                if (integral != null) {
+                    long b = integral;
+                    return a->!(a instanceof Number) || ((Number)a).longValue() != b;
+                }
+                if (Number.class.isAssignableFrom(type)) {
+                    double b = Double.parseDouble(operand);
+                    return a->!(a instanceof Number) || ((Number)a).doubleValue() != b;
+                }
+                return a->!operand.equals(String.valueOf(a));
+            }
+            Predicate<Object> test = compiler.apply(operand);
+            return a->valueSuperType.isInstance(a) && test.test(a);
+        }
+
+        private static boolean isIntegral(Class<?> type) {
+            return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+        }
+
+        /**
+         * @return The operand as a long, or null if it's not a whole number, so it's compared as a double
+         */
+        private static Long parseLong(String operand) {
+            try {
+                return Long.parseLong(operand);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Validates a value without compiling the operand in advance.
+         * @param target The operand to compare the value to
+         * @param value The value to validate
+         * @throws Exception If the value doesn't pass the condition
+         */
         public void validate(Object target, Object value) throws Exception {
+            if (!compile(String.valueOf(target),value == null ? Object.class : value.getClass()).test(value)) {
+                throw new Exception(getErrorMessage("Value",String.valueOf(target)));
+            }
+        }
 
+        public String getErrorMessage(String name, String operand) {
+            return String.format(errorMessage,name,operand);
         }
 
+        /**
+         * The type values compared with this comparison must extend
+         */
+        public Class<?> getValueSuperType() {
+            return valueSuperType;
+        }
+
+    }
+
+    /**
+     * A comparison of two primitive doubles
+     */
+    @FunctionalInterface
+    interface NumberComparison {
+        boolean test(double a, double b);
+    }
+
+    /**
+     * A comparison of two primitive longs
+     */
+    @FunctionalInterface
+    interface LongComparison {
+        boolean test(long a, long b);
     }
 }
@@ -0,0 +1,64 @@
+package com.shinybunny.hurricane.annotations;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.RateLimiter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes each sender wait between uses of a command. The same as a {@link RateLimit} of one use every {@link #value()} {@link #unit()}s.
+ * <pre>
+ * &#64;Command
+ * &#64;Cooldown(30)
+ * public void heal(&#64;Sender Player player) {
+ *     ...
+ * }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Adapter(Cooldown.Adapter.class)
+public @interface Cooldown {
+
+    /**
+     * The time between uses
+     */
+    long value();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * The maximum number of senders to remember, to keep the memory of the cooldown bounded. See {@link RateLimiter}.
+     */
+    int maxSenders() default 100_000;
+
+    class Adapter implements MethodAnnotationAdapter<Cooldown> {
+
+        @Override
+        public Class<Cooldown> getType() {
+            return Cooldown.class;
+        }
+
+        @Override
+        public void init(Cooldown instance, MethodCommand container, CommandRegisteringContext ctx) {
+            try {
+                container.set(RateLimit.Adapter.LIMITER,new RateLimiter(1,instance.value(),instance.unit(),instance.maxSenders()));
+            } catch (IllegalArgumentException e) {
+                ctx.addError(new CommandRegisterFailedException("Invalid @Cooldown on " + container.getName() + ": " + e.getMessage(),e));
+            }
+        }
+
+        @Override
+        public void postParse(MethodCommand cmd, Cooldown annotation, CommandExecutionContext ctx) throws CommandParsingException {
+            RateLimit.Adapter.check(cmd,ctx);
+        }
+    }
+}
@@ -2,14 +2,18 @@ package com.shinybunny.hurricane.annotations;
 
 import com.shinybunny.hurricane.CommandExecutionContext;
 import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.tree.ArgumentPlan;
+import com.shinybunny.hurricane.tree.CustomCommand;
 import com.shinybunny.hurricane.tree.ParameterArgument;
-import com.shinybunny.hurricane.util.Utils;
+import com.shinybunny.hurricane.util.AccessExpression;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.Key;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.lang.reflect.InvocationTargetException;
 
 /**
  * Defines a default value for an argument parameter. Using this annotation will make the argument optional,
@@ -57,6 +61,15 @@ public @interface Default {
 
     class Adapter implements ParamAnnotationAdapter<Default> {
 
+        /**
+         * The compiled {@link Default#computed()} expression of an argument
+         */
+        public static final Key<AccessExpression> COMPUTED = Key.create();
+        /**
+         * The default value of an argument without a {@link Default#computed()} expression, parsed into the type of the argument
+         */
+        public static final Key<Object> CONSTANT = Key.create();
+
         @Override
         public Class<Default> getType() {
             return Default.class;
@@ -65,37 +78,75 @@ public @interface Default {
         @Override
         public void init(Default instance, ParameterArgument container, CommandRegisteringContext ctx) {
             container.setRequired(false);
+            if (!instance.computed().isEmpty()) {
+                try {
+                    container.set(COMPUTED,AccessExpression.compile(instance.computed()));
+                } catch (CommandParsingException e) {
+                    ctx.addError(new CommandRegisterFailedException("Invalid @Default expression '" + instance.computed() + "' on " + container.getName() + ": " + e.getMessage(),e));
+                }
+            } else {
+                try {
+                    container.set(CONSTANT,parseConstant(instance,container.getType()));
+                } catch (IllegalArgumentException e) {
+                    ctx.addError(new CommandRegisterFailedException("Invalid @Default value '" + instance.value() + "' on " + container.getName() + ": " + e.getMessage(),e));
+                }
+            }
         }
 
         @Override
-        public Object getDefault(Default annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
-            if (!annotation.computed().isEmpty()) {
-                return computeValue(annotation.computed(),ctx);
+        public void onRegister(Default annotation, ParameterArgument argument, CustomCommand cmd, CommandRegisteringContext ctx) {
+            AccessExpression computed = argument.getOrDefault(COMPUTED);
+            if (computed == null) return;
+            for (String name : computed.getArgumentNames()) {
+                if (cmd.getArgument(name) == null) {
+                    ctx.addError("Unknown argument " + name + " in @Default expression '" + computed + "' on " + argument.getName());
+                }
             }
-            if (argument.getType() == Integer.class) return annotation.value().isEmpty() ? annotation.integer() : Integer.parseInt(annotation.value());
-            if (argument.getType() == Double.class) return annotation.value().isEmpty() ? annotation.doubleValue() : Double.parseDouble(annotation.value());
-            if (argument.getType() == Boolean.class) return annotation.value().isEmpty() ? annotation.bool() : Boolean.parseBoolean(annotation.value());
-            if (argument.getType() == Short.class) return annotation.value().isEmpty() ? annotation.shortValue() : Short.parseShort(annotation.value());
-            if (argument.getType() == Byte.class) return annotation.value().isEmpty() ? annotation.byteValue() : Byte.parseByte(annotation.value());
-            if (argument.getType() == Long.class) return annotation.value().isEmpty() ? annotation.longValue() : Long.parseLong(annotation.value());
-            if (argument.getType() == Float.class) return annotation.value().isEmpty() ? annotation.floatValue() : Float.parseFloat(annotation.value());
-
-            if (argument.getType() == String.class) return annotation.value();
-            if (argument.getType() == Character.class) return annotation.value().charAt(0);
-            if (argument.getType().isEnum()) return Enum.valueOf((Class)argument.getType(),annotation.value());
-            return null;
         }
 
         @Override
-        public void validate(Object value, Default annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
+        public Object getDefault(Default annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
+            return createDefaultSupplier(annotation,argument).get(ctx);
+        }
 
+        @Override
+        public ArgumentPlan.DefaultSupplier createDefaultSupplier(Default annotation, ParameterArgument argument) {
+            AccessExpression computed = argument.getOrDefault(COMPUTED);
+            if (computed != null) {
+                return ctx->computeValue(computed,ctx);
+            }
+            Object constant = argument.getOrDefault(CONSTANT);
+            return ctx->constant;
         }
 
+        /**
+         * Parses the constant default value of the annotation into the type of the argument.
+         * @return The value, or null if the type has no constant defaults
+         * @throws IllegalArgumentException If the value isn't a valid literal of the type
+         */
+        private static Object parseConstant(Default annotation, Class<?> type) {
+            String value = annotation.value();
+            if (type == Integer.class) return value.isEmpty() ? annotation.integer() : Integer.parseInt(value);
+            if (type == Double.class) return value.isEmpty() ? annotation.doubleValue() : Double.parseDouble(value);
+            if (type == Boolean.class) return value.isEmpty() ? annotation.bool() : Boolean.parseBoolean(value);
+            if (type == Short.class) return value.isEmpty() ? annotation.shortValue() : Short.parseShort(value);
+            if (type == Byte.class) return value.isEmpty() ? annotation.byteValue() : Byte.parseByte(value);
+            if (type == Long.class) return value.isEmpty() ? annotation.longValue() : Long.parseLong(value);
+            if (type == Float.class) return value.isEmpty() ? annotation.floatValue() : Float.parseFloat(value);
+
+            if (type == String.class) return value;
+            if (type == Character.class) {
+                if (value.isEmpty()) throw new IllegalArgumentException("a character default can't be empty");
+                return value.charAt(0);
+            }
+            if (type.isEnum()) return Enum.valueOf((Class)type,value);
+            return null;
+        }
 
-        private Object computeValue(String expr, CommandExecutionContext ctx) throws Exception {
+        private Object computeValue(AccessExpression expr, CommandExecutionContext ctx) throws Exception {
             try {
-                return Utils.getArgumentValueMember(expr,ctx);
-            } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException | NoSuchFieldException e) {
+                return expr.evaluate(ctx);
+            } catch (Exception e) {
                 throw new Exception("An error occurred while computing @Default value",e);
             }
         }
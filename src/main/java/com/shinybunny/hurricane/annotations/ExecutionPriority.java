@@ -0,0 +1,79 @@
+package com.shinybunny.hurricane.annotations;
+
+import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.scheduling.PriorityScheduler;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.Key;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the priority and cost of a command, used by a {@link PriorityScheduler} to choose which waiting command runs next.
+ * <pre>
+ * &#64;Command
+ * &#64;ExecutionPriority(ExecutionPriority.Level.HIGH)
+ * public void kick(User user) {
+ *     ...
+ * }
+ *
+ * &#64;Command
+ * &#64;ExecutionPriority(cost = 10)
+ * public void search(&#64;Greedy String query) {
+ *     ...
+ * }
+ * </pre>
+ * Commands without this annotation have {@link Level#NORMAL normal} priority and a cost of 1.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Adapter(ExecutionPriority.Adapter.class)
+public @interface ExecutionPriority {
+
+    /**
+     * The priority level. Waiting commands of a higher level always run before commands of lower levels.
+     */
+    Level value() default Level.NORMAL;
+
+    /**
+     * How expensive the command is compared to other commands of the same level.
+     * Senders of the same level get an equal share of the total cost, so a sender of expensive commands gets to run fewer of them.
+     */
+    int cost() default 1;
+
+    enum Level {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    class Adapter implements MethodAnnotationAdapter<ExecutionPriority> {
+
+        /**
+         * The priority level of a command. Can also be set on commands that aren't method commands.
+         */
+        public static final Key<Level> LEVEL = Key.create();
+        /**
+         * The cost of a command. Can also be set on commands that aren't method commands.
+         */
+        public static final Key<Integer> COST = Key.create();
+
+        @Override
+        public Class<ExecutionPriority> getType() {
+            return ExecutionPriority.class;
+        }
+
+        @Override
+        public void init(ExecutionPriority instance, MethodCommand container, CommandRegisteringContext ctx) {
+            if (instance.cost() < 1) {
+                ctx.addError(new CommandRegisterFailedException("The @ExecutionPriority cost of " + container.getName() + " must be at least 1, got " + instance.cost()));
+                return;
+            }
+            container.set(LEVEL,instance.value());
+            container.set(COST,instance.cost());
+        }
+    }
+}
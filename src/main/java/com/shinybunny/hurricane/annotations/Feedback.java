@@ -1,22 +1,24 @@
 package com.shinybunny.hurricane.annotations;
 
 import com.shinybunny.hurricane.*;
+import com.shinybunny.hurricane.tree.CustomCommand;
 import com.shinybunny.hurricane.tree.MethodCommand;
-import com.shinybunny.hurricane.util.Utils;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.Key;
+import com.shinybunny.hurricane.util.MessageTemplate;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Method commands annotated with Feedback will send a response message when the command was successful or when it failed,
  * using the provided <code>success</code> and <code>failed</code> fields.
  * <p>
  *     Both strings can use {@link com.shinybunny.hurricane.util.AccessExpression}s inside with <code>${expression}</code>.
+ *     The messages are compiled to {@link MessageTemplate}s when the command is registered.
  *     <p>
  *     If the command returned a value other than a boolean or a string, the returned value can be used in the success message with <code>${result}</code>.
  *     An access expression can be used there as well.
@@ -40,50 +42,41 @@ public @interface Feedback {
 
     class Adapter implements MethodAnnotationAdapter<Feedback> {
 
-        @Override
-        public void preExecute(MethodCommand cmd, Feedback annotation, List<Object> args, CommandExecutionContext ctx) {
-
-        }
+        /**
+         * The compiled {@link Feedback#success()} message of a command
+         */
+        public static final Key<MessageTemplate> SUCCESS = Key.create();
+        /**
+         * The compiled {@link Feedback#fail()} message of a command
+         */
+        public static final Key<MessageTemplate> FAIL = Key.create();
 
+        /**
+         * Sends the feedback through a hook that keeps the compiled messages of the command,
+         * so they are not looked up again on every execution.
+         */
         @Override
-        public void postExecute(MethodCommand cmd, Feedback annotation, CommandResult<?> result, CommandExecutionContext ctx) {
-            if (!result.getMessage().isEmpty()) return;
-            String msg;
-            if (result.isSuccessful()) {
-                msg = annotation.success();
-            } else {
-                msg = annotation.fail();
-            }
-            if (msg.isEmpty()) return;
-            msg = formatMessage(msg,ctx,result.getResult());
-            ctx.getSender().sendFeedback(result.isSuccessful(),msg);
-        }
+        public CommandHook convertToHook(Feedback annotation) {
+            return new CommandHook() {
 
-        private static final Pattern argPattern = Pattern.compile("(?<!\\\\)\\$\\{([^}]+)}");
+                private volatile MessageTemplate success;
+                private volatile MessageTemplate fail;
 
-        private String formatMessage(String msg, CommandExecutionContext ctx, Object result) {
-            StringBuilder b = new StringBuilder(msg);
-            while (true) {
-                Matcher m = argPattern.matcher(b);
-                if (m.find()) {
-                    String arg = m.group(1);
-                    try {
-                        Object value;
-                        if (arg.equalsIgnoreCase("result")) {
-                            value = result;
-                        } else {
-                            value = Utils.getArgumentValueMember(arg, ctx);
-                        }
-                        b.delete(m.start(),m.end());
-                        b.insert(m.start(), value);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        return b.toString();
-                    }
-                    continue;
+                @Override
+                public void onRegistered(CustomCommand cmd, CommandRegisteringContext ctx) throws CommandRegisterFailedException {
+                    init(annotation,(MethodCommand) cmd,ctx);
+                    success = cmd.getOrDefault(SUCCESS);
+                    fail = cmd.getOrDefault(FAIL);
                 }
-                return b.toString();
-            }
+
+                @Override
+                public void postExecute(CustomCommand cmd, CommandResult<?> result, CommandExecutionContext ctx) {
+                    if (!result.getMessage().isEmpty()) return;
+                    MessageTemplate template = result.isSuccessful() ? success : fail;
+                    if (template == null || template.isEmpty()) return;
+                    ctx.getSender().sendFeedback(result.isSuccessful(),template.render(ctx,result.getResult()));
+                }
+            };
         }
 
         @Override
@@ -93,7 +86,24 @@ public @interface Feedback {
 
         @Override
         public void init(Feedback instance, MethodCommand container, CommandRegisteringContext ctx) {
+            compile(instance.success(),SUCCESS,container,ctx);
+            compile(instance.fail(),FAIL,container,ctx);
+        }
 
+        private void compile(String msg, Key<MessageTemplate> key, MethodCommand container, CommandRegisteringContext ctx) {
+            MessageTemplate template;
+            try {
+                template = MessageTemplate.compile(msg,true);
+            } catch (CommandParsingException e) {
+                ctx.addError(new CommandRegisterFailedException("Invalid @Feedback message '" + msg + "': " + e.getMessage(),e));
+                return;
+            }
+            for (String name : template.getArgumentNames()) {
+                if (container.getArgument(name) == null) {
+                    ctx.addError("Unknown argument " + name + " in @Feedback message '" + msg + "'");
+                }
+            }
+            container.set(key,template);
         }
     }
 
@@ -0,0 +1,57 @@
+package com.shinybunny.hurricane.annotations;
+
+import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.scheduling.LaneScheduler;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.Key;
+import com.shinybunny.hurricane.util.MessageTemplate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Chooses the lane a command runs in with a {@link LaneScheduler}, instead of the lane of its sender.
+ * Commands with the same lane run one at a time, in order, no matter who sent them.
+ * <p>
+ * The lane can use {@link com.shinybunny.hurricane.util.AccessExpression}s with <code>${expression}</code>, so commands can be ordered by one of their arguments:
+ * <pre>
+ * &#64;Command
+ * &#64;Lane("world-${world.getName()}")
+ * public void time(World world, long time) {
+ *     ...
+ * }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Adapter(Lane.Adapter.class)
+public @interface Lane {
+
+    String value();
+
+    class Adapter implements MethodAnnotationAdapter<Lane> {
+
+        /**
+         * The compiled lane of a command. Can also be set on commands that aren't method commands.
+         */
+        public static final Key<MessageTemplate> LANE = Key.create();
+
+        @Override
+        public Class<Lane> getType() {
+            return Lane.class;
+        }
+
+        @Override
+        public void init(Lane instance, MethodCommand container, CommandRegisteringContext ctx) {
+            try {
+                container.set(LANE,MessageTemplate.compile(instance.value()));
+            } catch (CommandParsingException e) {
+                ctx.addError(new CommandRegisterFailedException("Invalid @Lane '" + instance.value() + "': " + e.getMessage(),e));
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.shinybunny.hurricane.*;
 import com.shinybunny.hurricane.tree.CustomCommand;
 import com.shinybunny.hurricane.tree.MethodCommand;
 import com.shinybunny.hurricane.util.CommandFailedException;
+import com.shinybunny.hurricane.util.CommandParsingException;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
 
 import java.lang.annotation.Annotation;
@@ -18,9 +19,36 @@ import java.util.List;
  */
 public interface MethodAnnotationAdapter<A extends Annotation> extends AnnotationAdapter<A,MethodCommand> {
 
-    void preExecute(MethodCommand cmd, A annotation, List<Object> args, CommandExecutionContext ctx) throws CommandFailedException;
+    /**
+     * Called when an input is about to be parsed as the command, before any of its arguments are parsed.
+     * @throws CommandParsingException To reject the input without parsing its arguments
+     */
+    default void preParse(MethodCommand cmd, A annotation, CommandExecutionContext ctx) throws CommandParsingException {
 
-    void postExecute(MethodCommand cmd, A annotation, CommandResult<?> result, CommandExecutionContext ctx);
+    }
+
+    /**
+     * Called once the whole input was parsed as the command, and not for overloads that were tried and didn't accept it.
+     * @throws CommandParsingException To reject the parsed input
+     */
+    default void postParse(MethodCommand cmd, A annotation, CommandExecutionContext ctx) throws CommandParsingException {
+
+    }
+
+    /**
+     * Called before the method of the command is invoked. The arguments can be changed in place.
+     * @throws CommandFailedException To fail the command without invoking its method
+     */
+    default void preExecute(MethodCommand cmd, A annotation, List<Object> args, CommandExecutionContext ctx) throws CommandFailedException {
+
+    }
+
+    /**
+     * Called after the method of the command returned, with its result.
+     */
+    default void postExecute(MethodCommand cmd, A annotation, CommandResult<?> result, CommandExecutionContext ctx) {
+
+    }
 
     default CommandHook convertToHook(A annotation) {
         return new CommandHook() {
@@ -29,6 +57,16 @@ public interface MethodAnnotationAdapter<A extends Annotation> extends Annotatio
                 init(annotation, (MethodCommand) cmd,ctx);
             }
 
+            @Override
+            public void preParse(CustomCommand cmd, CommandExecutionContext ctx) throws CommandParsingException {
+                MethodAnnotationAdapter.this.preParse((MethodCommand) cmd,annotation,ctx);
+            }
+
+            @Override
+            public void postParse(CustomCommand cmd, CommandExecutionContext ctx) throws CommandParsingException {
+                MethodAnnotationAdapter.this.postParse((MethodCommand) cmd,annotation,ctx);
+            }
+
             @Override
             public void preExecute(CustomCommand cmd, List<Object> args, CommandExecutionContext ctx) throws CommandFailedException {
                 MethodAnnotationAdapter.this.preExecute((MethodCommand) cmd,annotation,args,ctx);
@@ -2,18 +2,17 @@ package com.shinybunny.hurricane.annotations;
 
 import com.shinybunny.hurricane.CommandExecutionContext;
 import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.tree.ArgumentPlan;
 import com.shinybunny.hurricane.tree.ParameterArgument;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
-import com.shinybunny.hurricane.util.Utils;
+import com.shinybunny.hurricane.util.Key;
+import com.shinybunny.hurricane.util.OptionSet;
+import com.shinybunny.hurricane.util.OptionsProvider;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.BiFunction;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.PARAMETER)
@@ -36,8 +35,23 @@ public @interface Options {
 
     char[] charValues() default {};
 
+    /**
+     * A reference to a class extending {@link OptionsProvider}, for options that aren't known at compile time.
+     * The allowed values are the values of this provider and the values defined in this annotation.
+     */
+    Class<? extends OptionsProvider> from() default OptionsProvider.class;
+
     class Adapter implements ParamAnnotationAdapter<Options> {
 
+        /**
+         * The indexed options defined in the annotation of an argument
+         */
+        public static final Key<OptionSet> OPTIONS = Key.create();
+        /**
+         * The {@link Options#from() options provider} of an argument
+         */
+        public static final Key<OptionsProvider> PROVIDER = Key.create();
+
         @Override
         public Class<Options> getType() {
             return Options.class;
@@ -45,43 +59,66 @@ public @interface Options {
 
         @Override
         public void init(Options instance, ParameterArgument container, CommandRegisteringContext ctx) throws CommandRegisterFailedException {
+            Object array = getOptionsArray(instance,container.getType());
+            OptionSet options = array == null ? null : OptionSet.of(array,container.getType());
+            OptionsProvider provider = instance.from() == OptionsProvider.class ? null : ctx.getApi().getOptionsProvider(instance.from());
+            if (options != null) container.set(OPTIONS,options);
+            if (provider != null) container.set(PROVIDER,provider);
             container.setSuggestionProvider((reader, suggestions, sender, arg) -> {
-                if (instance.value().length > 0) suggestions.suggest(instance.value());
-                else if (instance.byteValues().length > 0) suggestions.suggest(Utils.toStringArr(instance.byteValues()));
-                else if (instance.intValues().length > 0) suggestions.suggest(Utils.toStringArr(instance.intValues()));
-                else if (instance.doubleValues().length > 0) suggestions.suggest(Utils.toStringArr(instance.doubleValues()));
-                else if (instance.floatValues().length > 0) suggestions.suggest(Utils.toStringArr(instance.floatValues()));
-                else if (instance.longValues().length > 0) suggestions.suggest(Utils.toStringArr(instance.longValues()));
-                else if (instance.shortValues().length > 0) suggestions.suggest(Utils.toStringArr(instance.shortValues()));
-                else if (instance.charValues().length > 0) suggestions.suggest(Utils.toStringArr(instance.charValues()));
+                if (options != null) {
+                    suggestions.suggest(options.getSuggestions());
+                }
+                if (provider != null) {
+                    suggestions.suggest(provider.getOptionSet(arg.getType()).getSuggestions());
+                }
             });
         }
 
-        private <T> void checkValidity(T value, Object options, BiFunction<Object,Integer,T> getter) throws Exception {
-            List<String> optStr = new ArrayList<>();
-            int len = Array.getLength(options);
-            for (int i = 0; i < len; i++) {
-                T opt = getter.apply(options,i);
-                optStr.add(opt.toString());
-                if (opt.equals(value)) return;
-            }
-            throw new Exception(String.join(", ",optStr));
+        /**
+         * Gets the array of options in the annotation that is used for the argument type.
+         * @return The array, or null if the annotation has no options of that type
+         */
+        private static Object getOptionsArray(Options instance, Class<?> type) {
+            if (instance.value().length > 0) return instance.value();
+            if (type == Integer.class) return instance.intValues();
+            if (type == Double.class) return instance.doubleValues();
+            if (type == Float.class) return instance.floatValues();
+            if (type == Short.class) return instance.shortValues();
+            if (type == Long.class) return instance.longValues();
+            if (type == Byte.class) return instance.byteValues();
+            if (type == Character.class) return instance.charValues();
+            return null;
         }
 
         @Override
         public void validate(Object value, Options annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
-            try {
-                if (annotation.value().length > 0) checkValidity(value.toString(),annotation.value(),(o,i)->Array.get(o,i).toString());
-                else if (argument.getType() == Integer.class) checkValidity(value,annotation.intValues(),Array::getInt);
-                else if (argument.getType() == Double.class) checkValidity(value,annotation.doubleValues(),Array::getDouble);
-                else if (argument.getType() == Float.class) checkValidity(value,annotation.floatValues(),Array::getFloat);
-                else if (argument.getType() == Short.class) checkValidity(value,annotation.shortValues(),Array::getShort);
-                else if (argument.getType() == Long.class) checkValidity(value,annotation.longValues(),Array::getLong);
-                else if (argument.getType() == Byte.class) checkValidity(value,annotation.byteValues(),Array::getByte);
-                else if (argument.getType() == Character.class) checkValidity(value,annotation.charValues(),Array::getChar);
-            } catch (Exception e) {
-                throw new Exception("Argument " + argument.getName() + " should be one of: " + e.getMessage());
+            createValidator(annotation,argument).validate(value,ctx);
+        }
+
+        @Override
+        public ArgumentPlan.Validator createValidator(Options annotation, ParameterArgument argument) {
+            OptionSet options = argument.getOrDefault(OPTIONS);
+            OptionsProvider provider = argument.getOrDefault(PROVIDER);
+            Class<?> type = argument.getType();
+            if (provider == null) {
+                if (options == null) return (value,ctx)->{};
+                return (value,ctx)->{
+                    if (!options.contains(value)) {
+                        throw new Exception("Argument " + argument.getName() + " should be one of: " + options);
+                    }
+                };
             }
+            return (value,ctx)->{
+                if (options != null && options.contains(value)) return;
+                // the provider may have been refreshed, so its set is fetched on every check
+                OptionSet dynamic = provider.getOptionSet(type);
+                if (dynamic != null && dynamic.contains(value)) return;
+                String allowed = options == null ? "" : options.toString();
+                if (dynamic != null && !dynamic.isEmpty()) {
+                    allowed = allowed.isEmpty() ? dynamic.toString() : allowed + ", " + dynamic;
+                }
+                throw new Exception("Argument " + argument.getName() + " should be one of: " + allowed);
+            };
         }
     }
 
@@ -2,6 +2,9 @@ package com.shinybunny.hurricane.annotations;
 
 import com.shinybunny.hurricane.Hurricane;
 import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.tree.ArgumentPlan;
+import com.shinybunny.hurricane.tree.CustomCommand;
 import com.shinybunny.hurricane.tree.ParameterArgument;
 
 import java.lang.annotation.Annotation;
@@ -16,10 +19,49 @@ import java.lang.annotation.Annotation;
  */
 public interface ParamAnnotationAdapter<A extends Annotation> extends AnnotationAdapter<A,ParameterArgument> {
 
+    /**
+     * Called when the command declaring the argument is registered, after all of its arguments were added.
+     * Use it to check settings that refer to other arguments of the command, and report problems with {@link CommandRegisteringContext#addError(String)}.
+     * @param cmd The command declaring the argument
+     */
+    default void onRegister(A annotation, ParameterArgument argument, CustomCommand cmd, CommandRegisteringContext ctx) {
+
+    }
+
+    /**
+     * Provides a default value for the argument when it's absent from the input.
+     * Adapters that don't override this method are never called for defaults.
+     * @return The default value, or <code>null</code> to let the next adapter (or the argument adapter) provide it
+     */
     default Object getDefault(A annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
         return null;
     }
 
-    void validate(Object value, A annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception;
+    /**
+     * Validates the parsed value of the argument.
+     * Adapters that don't override this method are never called when parsing.
+     * @throws Exception If the value is invalid. The message of the exception is shown as the parsing error.
+     */
+    default void validate(Object value, A annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
+
+    }
+
+    /**
+     * Creates the default supplier of the argument, once when the command is registered, after this adapter was initialized for it.
+     * Override it to capture what {@link #init init} prepared, instead of looking it up in {@link #getDefault(Annotation, ParameterArgument, CommandExecutionContext) getDefault} every time.
+     * Adapters that override neither method are never called for defaults.
+     */
+    default ArgumentPlan.DefaultSupplier createDefaultSupplier(A annotation, ParameterArgument argument) {
+        return ctx->getDefault(annotation,argument,ctx);
+    }
+
+    /**
+     * Creates the validator of the argument, once when the command is registered, after this adapter was initialized for it.
+     * Override it to capture what {@link #init init} prepared, instead of looking it up in {@link #validate(Object, Annotation, ParameterArgument, CommandExecutionContext) validate} every time.
+     * Adapters that override neither method are never called when parsing.
+     */
+    default ArgumentPlan.Validator createValidator(A annotation, ParameterArgument argument) {
+        return (value,ctx)->validate(value,annotation,argument,ctx);
+    }
 
 }
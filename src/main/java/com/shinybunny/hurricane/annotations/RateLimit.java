@@ -0,0 +1,92 @@
+package com.shinybunny.hurricane.annotations;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.tree.CustomCommand;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import com.shinybunny.hurricane.util.*;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often each sender can use a command. A sender gets {@link #value()} uses every {@link #per()} {@link #unit()}s, and can use all of them at once.
+ * <pre>
+ * &#64;Command
+ * &#64;RateLimit(value = 5, per = 10)
+ * public void report(User user, &#64;Greedy String reason) {
+ *     ...
+ * }
+ * </pre>
+ * A permit is taken once the input was parsed, so an input that doesn't parse, or that is tried against other overloads first, uses no more than one.
+ * Inputs over the limit are rejected with a {@link RateLimitedException} before the command runs.
+ * Senders are told apart by {@link com.shinybunny.hurricane.CommandSender#getDelegate()}.
+ * @see Cooldown
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Adapter(RateLimit.Adapter.class)
+public @interface RateLimit {
+
+    /**
+     * The number of uses in every period
+     */
+    int value();
+
+    /**
+     * The length of the period
+     */
+    long per() default 1;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * The maximum number of senders to remember, to keep the memory of the limit bounded. See {@link RateLimiter}.
+     */
+    int maxSenders() default 100_000;
+
+    class Adapter implements MethodAnnotationAdapter<RateLimit> {
+
+        /**
+         * The rate limiter of a command, shared by {@link RateLimit} and {@link Cooldown}. Can also be set on commands that aren't method commands,
+         * as long as they call {@link #check(CustomCommand, CommandExecutionContext)} in a {@link com.shinybunny.hurricane.CommandHook#postParse(CustomCommand, CommandExecutionContext) hook}.
+         */
+        public static final Key<RateLimiter> LIMITER = Key.create();
+
+        @Override
+        public Class<RateLimit> getType() {
+            return RateLimit.class;
+        }
+
+        @Override
+        public void init(RateLimit instance, MethodCommand container, CommandRegisteringContext ctx) {
+            try {
+                container.set(LIMITER,new RateLimiter(instance.value(),instance.per(),instance.unit(),instance.maxSenders()));
+            } catch (IllegalArgumentException e) {
+                ctx.addError(new CommandRegisterFailedException("Invalid @RateLimit on " + container.getName() + ": " + e.getMessage(),e));
+            }
+        }
+
+        @Override
+        public void postParse(MethodCommand cmd, RateLimit annotation, CommandExecutionContext ctx) throws CommandParsingException {
+            check(cmd,ctx);
+        }
+
+        /**
+         * Takes a permit of the sender from the {@link #LIMITER} of the command.
+         * @throws RateLimitedException If the sender has no permits left
+         */
+        public static void check(CustomCommand cmd, CommandExecutionContext ctx) throws RateLimitedException {
+            RateLimiter limiter = cmd.getOrDefault(LIMITER);
+            if (limiter == null) return;
+            long wait = limiter.tryAcquire(ctx.getSender().getDelegate());
+            if (wait > 0) {
+                long seconds = Math.max(1,TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999));
+                throw new RateLimitedException("You can use /" + cmd.getPath() + " again in " + seconds + (seconds == 1 ? " second" : " seconds"),wait);
+            }
+        }
+    }
+}
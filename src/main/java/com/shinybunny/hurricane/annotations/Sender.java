@@ -28,11 +28,6 @@ public @interface Sender {
             throw new Exception("You cannot use this command!");
         }
 
-        @Override
-        public void validate(Object value, Sender annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
-
-        }
-
         @Override
         public Class<Sender> getType() {
             return Sender.class;
@@ -1,6 +1,5 @@
 package com.shinybunny.hurricane.annotations;
 
-import com.shinybunny.hurricane.CommandExecutionContext;
 import com.shinybunny.hurricane.CommandRegisteringContext;
 import com.shinybunny.hurricane.tree.ParameterArgument;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
@@ -59,11 +58,6 @@ public @interface Suggest {
                 }
             }));
         }
-
-        @Override
-        public void validate(Object value, Suggest annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
-
-        }
     }
 
 }
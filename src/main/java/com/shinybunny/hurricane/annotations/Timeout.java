@@ -0,0 +1,57 @@
+package com.shinybunny.hurricane.annotations;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandRegisteringContext;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.tree.MethodCommand;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import com.shinybunny.hurricane.util.Key;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets how long a command can run, instead of the {@link Hurricane#setExecutionTimeout(long, TimeUnit) execution timeout} of the API.
+ * <pre>
+ * &#64;Command
+ * &#64;Timeout(value = 30, unit = TimeUnit.SECONDS)
+ * public void backup(CommandExecutionContext ctx) {
+ *     ...
+ * }
+ * </pre>
+ * A value of 0 means the command has no timeout.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Adapter(Timeout.Adapter.class)
+public @interface Timeout {
+
+    long value();
+
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    class Adapter implements MethodAnnotationAdapter<Timeout> {
+
+        /**
+         * The timeout of a command in nanoseconds, where 0 means no timeout. Can also be set on commands that aren't method commands.
+         */
+        public static final Key<Long> TIMEOUT = Key.create();
+
+        @Override
+        public Class<Timeout> getType() {
+            return Timeout.class;
+        }
+
+        @Override
+        public void init(Timeout instance, MethodCommand container, CommandRegisteringContext ctx) {
+            if (instance.value() < 0) {
+                ctx.addError(new CommandRegisterFailedException("The @Timeout of " + container.getName() + " cannot be negative, got " + instance.value()));
+                return;
+            }
+            container.set(TIMEOUT,instance.unit().toNanos(instance.value()));
+        }
+    }
+}
@@ -16,6 +16,13 @@ public interface ArgumentAdapter<T> extends SuggestionProvider {
 
     Class<T> getType();
 
+    /**
+     * Checks whether this adapter can handle the argument.
+     * Only called for arguments whose type is the same as or a subclass of {@link #getType()}.
+     * @param arg The argument being registered
+     * @param ctx The current command registering context
+     * @return True if this adapter should be the adapter of the argument
+     */
     default boolean canApply(Argument arg, CommandRegisteringContext ctx) {
         return arg.typeExtends(getType());
     }
@@ -28,6 +35,12 @@ public interface ArgumentAdapter<T> extends SuggestionProvider {
         return null;
     }
 
+    /**
+     * Gets the {@link Priority} this adapter has on another adapter. When multiple adapters can apply to an argument, the first of them in priority order is used.
+     * The priorities are queried once when the adapters are sorted, and not for every argument.
+     * @param other The other adapter
+     * @param ctx The command registering context of the argument that caused the adapters to be sorted
+     */
     default Priority getPriorityOn(ArgumentAdapter<?> other, CommandRegisteringContext ctx) {
         return Priority.DEFAULT;
     }
@@ -0,0 +1,167 @@
+package com.shinybunny.hurricane.metrics;
+
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.tree.CustomCommand;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.RateLimitedException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long commands take to parse and execute, how often they succeed or fail, and which parsing errors occur.
+ * <p>
+ * Metrics are disabled by default. Enable them with {@link Hurricane#setMetrics(CommandMetrics)}, and read them with {@link #snapshot()}:
+ * <pre>
+ * CommandMetrics metrics = new CommandMetrics();
+ * api.setMetrics(metrics);
+ * ...
+ * for (CommandStats.Snapshot stats : metrics.snapshot().getCommands().values()) {
+ *     System.out.println(stats);
+ * }
+ * </pre>
+ * All recording methods are thread safe and don't block.
+ */
+public class CommandMetrics {
+
+    private final Map<CustomCommand, CommandStats> byCommand = new ConcurrentHashMap<>();
+    private final Map<String, CommandStats> byPath = new ConcurrentHashMap<>();
+    private final Map<Class<?>, LongAdder> parseErrors = new ConcurrentHashMap<>();
+    private final LongAdder unknownCommands = new LongAdder();
+
+    /**
+     * Gets the stats of the path of a command, creating them if needed.
+     */
+    public CommandStats getStats(CustomCommand cmd) {
+        CommandStats stats = byCommand.get(cmd);
+        if (stats == null) {
+            // the parent is resolved first, outside of any map update
+            CommandStats parent = cmd.getParent() == null ? null : getStats(cmd.getParent());
+            stats = byPath.computeIfAbsent(cmd.getPath(),path->new CommandStats(path,parent));
+            byCommand.putIfAbsent(cmd,stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Records a successful parse of a command.
+     * @param cmd The command the input was parsed as
+     * @param nanos The time it took to parse, in nanoseconds
+     */
+    public void recordParse(CustomCommand cmd, long nanos) {
+        getStats(cmd).recordParse(nanos);
+    }
+
+    /**
+     * Records an input that failed to parse.
+     * @param cmd The last command the input was attempted as, or <code>null</code> if unknown
+     * @param error The parsing error. Errors are counted by their class. A {@link RateLimitedException} is only counted as a rejection of the command, not as a parsing error.
+     */
+    public void recordParseError(CustomCommand cmd, CommandParsingException error) {
+        if (error instanceof RateLimitedException) {
+            if (cmd != null) getStats(cmd).recordRateLimited();
+            return;
+        }
+        LongAdder counter = parseErrors.get(error.getClass());
+        if (counter == null) {
+            counter = parseErrors.computeIfAbsent(error.getClass(),k->new LongAdder());
+        }
+        counter.increment();
+        if (cmd != null) getStats(cmd).recordParseError();
+    }
+
+    /**
+     * Records an input that didn't start with the name of any command.
+     */
+    public void recordUnknownCommand() {
+        unknownCommands.increment();
+    }
+
+    /**
+     * Records an asynchronous execution of a command that didn't finish before its timeout.
+     * The execution itself is recorded too once the command returns.
+     */
+    public void recordTimeout(CustomCommand cmd) {
+        getStats(cmd).recordTimeout();
+    }
+
+    /**
+     * Records an execution of a command.
+     * @param cmd The executed command
+     * @param nanos The time it took to execute, in nanoseconds
+     * @param success True if the command returned a successful result
+     */
+    public void recordExecution(CustomCommand cmd, long nanos, boolean success) {
+        getStats(cmd).recordExecution(nanos,success);
+    }
+
+    public Snapshot snapshot() {
+        Map<String, CommandStats.Snapshot> commands = new TreeMap<>();
+        for (CommandStats stats : byPath.values()) {
+            commands.put(stats.getPath(),stats.snapshot());
+        }
+        Map<String, Long> errors = new TreeMap<>();
+        for (Map.Entry<Class<?>, LongAdder> e : parseErrors.entrySet()) {
+            errors.merge(e.getKey().getSimpleName(),e.getValue().sum(),Long::sum);
+        }
+        return new Snapshot(commands,errors,unknownCommands.sum());
+    }
+
+    /**
+     * An immutable copy of {@link CommandMetrics}.
+     */
+    public static final class Snapshot {
+
+        private final Map<String, CommandStats.Snapshot> commands;
+        private final Map<String, Long> parseErrors;
+        private final long unknownCommands;
+
+        private Snapshot(Map<String, CommandStats.Snapshot> commands, Map<String, Long> parseErrors, long unknownCommands) {
+            this.commands = Collections.unmodifiableMap(commands);
+            this.parseErrors = Collections.unmodifiableMap(parseErrors);
+            this.unknownCommands = unknownCommands;
+        }
+
+        /**
+         * The stats of every command path that was used, sorted by path
+         */
+        public Map<String, CommandStats.Snapshot> getCommands() {
+            return commands;
+        }
+
+        /**
+         * Gets the stats of a command path, such as <code>team add</code>.
+         * @return The stats, or <code>null</code> if the path was never used
+         */
+        public CommandStats.Snapshot getCommand(String path) {
+            return commands.get(path);
+        }
+
+        /**
+         * The number of parsing errors of each kind, by the simple name of the exception class
+         */
+        public Map<String, Long> getParseErrors() {
+            return parseErrors;
+        }
+
+        /**
+         * The number of inputs that didn't start with the name of any command
+         */
+        public long getUnknownCommands() {
+            return unknownCommands;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder b = new StringBuilder();
+            for (CommandStats.Snapshot s : commands.values()) {
+                b.append(s).append('\n');
+            }
+            b.append("parse errors: ").append(parseErrors).append(", unknown commands: ").append(unknownCommands);
+            return b.toString();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.shinybunny.hurricane.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of a single command path, such as <code>team add</code>.
+ * <p>
+ * Everything recorded for a sub-command is also recorded for the commands above it,
+ * so the stats of a tree command include the stats of all of its sub-commands.
+ * Overloads of the same path share their stats.
+ */
+public final class CommandStats {
+
+    private final String path;
+    private final CommandStats parent;
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    CommandStats(String path, CommandStats parent) {
+        this.path = path;
+        this.parent = parent;
+    }
+
+    void recordParse(long nanos) {
+        for (CommandStats s = this; s != null; s = s.parent) {
+            s.parseLatency.record(nanos);
+        }
+    }
+
+    void recordParseError() {
+        for (CommandStats s = this; s != null; s = s.parent) {
+            s.parseErrors.increment();
+        }
+    }
+
+    void recordRateLimited() {
+        for (CommandStats s = this; s != null; s = s.parent) {
+            s.rateLimited.increment();
+        }
+    }
+
+    void recordTimeout() {
+        for (CommandStats s = this; s != null; s = s.parent) {
+            s.timeouts.increment();
+        }
+    }
+
+    void recordExecution(long nanos, boolean success) {
+        for (CommandStats s = this; s != null; s = s.parent) {
+            s.executeLatency.record(nanos);
+            (success ? s.successes : s.failures).increment();
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the stats of the command above this one, or <code>null</code> for a top level command
+     */
+    public CommandStats getParent() {
+        return parent;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(path,parseLatency.snapshot(),executeLatency.snapshot(),successes.sum(),failures.sum(),parseErrors.sum(),rateLimited.sum(),timeouts.sum());
+    }
+
+    /**
+     * An immutable copy of {@link CommandStats}.
+     */
+    public static final class Snapshot {
+
+        private final String path;
+        private final LatencyHistogram.Snapshot parseLatency;
+        private final LatencyHistogram.Snapshot executeLatency;
+        private final long successes;
+        private final long failures;
+        private final long parseErrors;
+        private final long rateLimited;
+        private final long timeouts;
+
+        private Snapshot(String path, LatencyHistogram.Snapshot parseLatency, LatencyHistogram.Snapshot executeLatency, long successes, long failures, long parseErrors, long rateLimited, long timeouts) {
+            this.path = path;
+            this.parseLatency = parseLatency;
+            this.executeLatency = executeLatency;
+            this.successes = successes;
+            this.failures = failures;
+            this.parseErrors = parseErrors;
+            this.rateLimited = rateLimited;
+            this.timeouts = timeouts;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * The latencies of successful parsing of the command
+         */
+        public LatencyHistogram.Snapshot getParseLatency() {
+            return parseLatency;
+        }
+
+        /**
+         * The latencies of executing the command, successful or not
+         */
+        public LatencyHistogram.Snapshot getExecuteLatency() {
+            return executeLatency;
+        }
+
+        /**
+         * The number of executions with a {@link com.shinybunny.hurricane.CommandResult#isSuccessful() successful} result
+         */
+        public long getSuccesses() {
+            return successes;
+        }
+
+        /**
+         * The number of executions with a failed result, or that threw an exception
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * The number of inputs that failed to parse as this command
+         */
+        public long getParseErrors() {
+            return parseErrors;
+        }
+
+        /**
+         * The number of inputs rejected by a {@link com.shinybunny.hurricane.annotations.RateLimit rate limit} or {@link com.shinybunny.hurricane.annotations.Cooldown cooldown}.
+         * These are not counted as {@link #getParseErrors() parse errors}.
+         */
+        public long getRateLimited() {
+            return rateLimited;
+        }
+
+        /**
+         * The number of asynchronous executions that didn't finish before their timeout
+         */
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        @Override
+        public String toString() {
+            return path + ": successes=" + successes + ", failures=" + failures + ", parseErrors=" + parseErrors + ", rateLimited=" + rateLimited + ", timeouts=" + timeouts +
+                    "\n\tparse: " + parseLatency +
+                    "\n\texecute: " + executeLatency;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.shinybunny.hurricane.scheduling;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.Hurricane;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Decides when commands executed with {@link Hurricane#executeAsync(CommandExecutionContext)} run, for example to keep the commands of one sender in order.
+ * Set the scheduler of an API with {@link Hurricane#setScheduler(CommandScheduler)}.
+ */
+@FunctionalInterface
+public interface CommandScheduler {
+
+    /**
+     * Runs every command on its executor as soon as it is scheduled, with no ordering between commands.
+     */
+    CommandScheduler DIRECT = (ctx,executor,task,done)->executor.execute(task);
+
+    /**
+     * Schedules a command to run.
+     * <p>
+     * A command is done when <code>done</code> completes, which can be before its task returns if the command {@link Hurricane#setExecutionTimeout(long, java.util.concurrent.TimeUnit) timed out}.
+     * Schedulers should consider the command's slot free from then on, even though its thread may still be busy.
+     * @param ctx The parsed command
+     * @param executor The executor the command should run on
+     * @param task The task executing the command. It completes the future of the command, and doesn't throw.
+     * @param done The future of the command
+     * @throws RejectedExecutionException If the command can't be accepted
+     */
+    void schedule(CommandExecutionContext ctx, Executor executor, Runnable task, CompletableFuture<?> done) throws RejectedExecutionException;
+
+}
@@ -0,0 +1,210 @@
+package com.shinybunny.hurricane.scheduling;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandExecutor;
+import com.shinybunny.hurricane.annotations.Lane;
+import com.shinybunny.hurricane.tree.CustomCommand;
+import com.shinybunny.hurricane.util.MessageTemplate;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A {@link CommandScheduler} that runs the commands of each lane one at a time, in the order they were scheduled, while different lanes run in parallel.
+ * <p>
+ * The lane of a command is its sender's {@link com.shinybunny.hurricane.CommandSender#getDelegate() delegate},
+ * unless the command chooses a lane with {@link Lane}. A lane is not a thread: it hands its commands to their executors one after another,
+ * so any number of lanes can share one pool. A lane exists only while it has commands to run, and is removed as soon as it goes idle.
+ * <p>
+ * The next command of a lane starts when the previous one is done, or when it times out.
+ * If its executor rejects it then, its future completes with the {@link RejectedExecutionException} and the lane moves on.
+ * A waiting command that is cancelled or times out leaves the lane right away, and no longer counts against its capacity.
+ * <pre>
+ * api.setAsyncExecutor(Executors.newFixedThreadPool(8));
+ * api.setScheduler(new LaneScheduler(64));
+ * </pre>
+ */
+public class LaneScheduler implements CommandScheduler {
+
+    private final int capacity;
+    private final Map<Object, LaneQueue> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity The maximum number of commands waiting in a lane. Commands scheduled to a full lane are rejected.
+     */
+    public LaneScheduler(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Lane capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void schedule(CommandExecutionContext ctx, Executor executor, Runnable task, CompletableFuture<?> done) throws RejectedExecutionException {
+        if (done.isDone()) return;
+        Object key = getLaneKey(ctx);
+        Entry entry = new Entry(executor,task,done);
+        while (true) {
+            LaneQueue lane = lanes.computeIfAbsent(key,LaneQueue::new);
+            if (lane.offer(entry)) return;
+        }
+    }
+
+    /**
+     * Gets the lane of a command: the rendered {@link Lane#value()} of the command or its closest parent, or the delegate of its sender.
+     */
+    public Object getLaneKey(CommandExecutionContext ctx) {
+        CommandExecutor executor = ctx.getExecutor();
+        if (executor instanceof CustomCommand) {
+            MessageTemplate lane = ((CustomCommand) executor).getExecutionSettings().getLane();
+            if (lane != null) {
+                return lane.render(ctx);
+            }
+        }
+        return ctx.getSender().getDelegate();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of lanes that currently have commands running or waiting
+     */
+    public int getActiveLanes() {
+        return lanes.size();
+    }
+
+    /**
+     * A command in a lane. Its state is guarded by its lane.
+     */
+    private static final class Entry {
+
+        final Executor executor;
+        final Runnable task;
+        final CompletableFuture<?> done;
+        State state = State.QUEUED;
+
+        Entry(Executor executor, Runnable task, CompletableFuture<?> done) {
+            this.executor = executor;
+            this.task = task;
+            this.done = done;
+        }
+    }
+
+    private enum State {
+        QUEUED, STARTED, FINISHED
+    }
+
+    /**
+     * The commands of a single lane. At most one of them runs at a time.
+     */
+    private final class LaneQueue {
+
+        private final Object key;
+        /**
+         * The waiting commands, in order. Commands that are done while waiting remove themselves.
+         */
+        private final Set<Entry> entries = new LinkedHashSet<>();
+        private boolean running;
+        /**
+         * Set when the lane went idle and was removed, so new commands must create a new lane
+         */
+        private boolean closed;
+
+        LaneQueue(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds a command to this lane, starting it right away if the lane is idle.
+         * @return False if the lane was closed and the command was not added
+         */
+        boolean offer(Entry entry) {
+            boolean start;
+            synchronized (this) {
+                if (closed) return false;
+                if (entries.size() >= capacity) {
+                    throw new RejectedExecutionException("The lane " + key + " is full (" + capacity + " commands)");
+                }
+                start = !running;
+                if (start) {
+                    running = true;
+                    entry.state = State.STARTED;
+                } else {
+                    entries.add(entry);
+                }
+            }
+            // registered once per command, so completing a command never registers another callback
+            entry.done.whenComplete((r,e)->{
+                if (finish(entry)) advance();
+            });
+            if (start) {
+                try {
+                    entry.executor.execute(entry.task);
+                } catch (RejectedExecutionException e) {
+                    // the command is not taken, so the lane moves on without it
+                    if (finish(entry)) advance();
+                    throw e;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Marks a command as finished, removing it from the lane if it was still waiting.
+         * @return True if the command was running, so the lane should move on
+         */
+        private synchronized boolean finish(Entry entry) {
+            State state = entry.state;
+            entry.state = State.FINISHED;
+            if (state == State.QUEUED) {
+                entries.remove(entry);
+            }
+            return state == State.STARTED;
+        }
+
+        /**
+         * Starts the next command of the lane, or closes the lane if it has none.
+         */
+        private void advance() {
+            Entry next = next();
+            while (next != null) {
+                try {
+                    next.executor.execute(next.task);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // running it here could block whichever thread completed the previous command, such as the timeout timer
+                    if (!finish(next)) return;
+                    next.done.completeExceptionally(e);
+                    next = next();
+                }
+            }
+        }
+
+        /**
+         * Takes the next waiting command that is not done yet, or closes the lane if there is none.
+         */
+        private synchronized Entry next() {
+            for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                it.remove();
+                if (!entry.done.isDone()) {
+                    entry.state = State.STARTED;
+                    return entry;
+                }
+                entry.state = State.FINISHED;
+            }
+            running = false;
+            closed = true;
+            lanes.remove(key,this);
+            return null;
+        }
+    }
+}
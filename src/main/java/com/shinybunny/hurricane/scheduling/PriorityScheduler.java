@@ -0,0 +1,263 @@
+package com.shinybunny.hurricane.scheduling;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.CommandExecutor;
+import com.shinybunny.hurricane.annotations.ExecutionPriority;
+import com.shinybunny.hurricane.annotations.ExecutionPriority.Level;
+import com.shinybunny.hurricane.tree.CustomCommand;
+import com.shinybunny.hurricane.tree.ExecutionSettings;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A {@link CommandScheduler} that runs a limited number of commands at once, and chooses which waiting command runs next by its {@link ExecutionPriority}.
+ * <p>
+ * Every priority level has its own queue, and a waiting command of a higher level always runs before commands of lower levels,
+ * so commands such as <code>kick</code> don't wait behind a flood of cheap commands.
+ * Within a level, senders (told apart by {@link com.shinybunny.hurricane.CommandSender#getDelegate()}) share the running slots fairly by the
+ * {@link ExecutionPriority#cost() cost} of their commands, using self-clocked weighted fair queuing:
+ * a sender that queues many commands, or expensive ones, doesn't delay the first command of another sender.
+ * Commands of the same sender and level still start in the order they were scheduled.
+ * <pre>
+ * api.setAsyncExecutor(Executors.newFixedThreadPool(8));
+ * api.setScheduler(new PriorityScheduler(8,10_000));
+ * </pre>
+ * The capacity bounds the waiting commands of each sender, so the memory of the queues grows with the number of senders that flood at once.
+ * The concurrency should not be more than the threads of the executors, otherwise commands wait in the executor's queue, where priorities don't apply.
+ * A command that {@link com.shinybunny.hurricane.Hurricane#setExecutionTimeout(long, java.util.concurrent.TimeUnit) times out} frees its slot right away,
+ * so the executor needs spare threads (or virtual threads) for other commands to run while it is stuck.
+ * A waiting command that is cancelled or times out leaves its queue right away. A command whose executor rejects it gives its slot back:
+ * if it was scheduled right away the rejection is thrown to the caller, and if it was waiting its future completes with the {@link RejectedExecutionException}.
+ */
+public class PriorityScheduler implements CommandScheduler {
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final int capacity;
+    private final LevelQueue[] queues = new LevelQueue[LEVELS.length];
+    /**
+     * The number of commands that can still start right away
+     */
+    private int permits;
+    private long sequence;
+
+    /**
+     * @param concurrency The number of commands that can run at once
+     * @param capacity The maximum number of waiting commands of each sender in a level.
+     *                 A command is rejected when its sender already has that many commands waiting in its level, so one sender can't fill a level for everyone else.
+     */
+    public PriorityScheduler(int concurrency, int capacity) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.permits = concurrency;
+        this.capacity = capacity;
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new LevelQueue();
+        }
+    }
+
+    @Override
+    public void schedule(CommandExecutionContext ctx, Executor executor, Runnable task, CompletableFuture<?> done) throws RejectedExecutionException {
+        if (done.isDone()) return;
+        Level level = Level.NORMAL;
+        int cost = 1;
+        CommandExecutor cmdExecutor = ctx.getExecutor();
+        if (cmdExecutor instanceof CustomCommand) {
+            ExecutionSettings settings = ((CustomCommand) cmdExecutor).getExecutionSettings();
+            level = settings.getLevel();
+            cost = settings.getCost();
+        }
+        Entry entry = new Entry(ctx.getSender().getDelegate(),executor,task,done);
+        boolean start;
+        synchronized (this) {
+            start = permits > 0;
+            if (start) {
+                permits--;
+                entry.state = State.STARTED;
+            } else {
+                queues[level.ordinal()].add(entry,cost);
+            }
+        }
+        // registered once per command, so completing a command never registers another callback
+        done.whenComplete((r,e)->{
+            if (finish(entry)) release();
+        });
+        if (start) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // the command is not taken, so its slot goes to the next waiting command
+                if (finish(entry)) release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Gets the priority level of a command or its closest parent that has one.
+     */
+    public static Level getLevel(CustomCommand cmd) {
+        return cmd.getExecutionSettings().getLevel();
+    }
+
+    /**
+     * Gets the cost of a command or its closest parent that has one.
+     */
+    public static int getCost(CustomCommand cmd) {
+        return cmd.getExecutionSettings().getCost();
+    }
+
+    /**
+     * The number of commands of a level waiting to start
+     */
+    public synchronized int getWaiting(Level level) {
+        return queues[level.ordinal()].entries.size();
+    }
+
+    /**
+     * Marks a command as finished, removing it from its queue if it was still waiting.
+     * @return True if the command was running, so its slot is free
+     */
+    private synchronized boolean finish(Entry entry) {
+        State state = entry.state;
+        entry.state = State.FINISHED;
+        if (state == State.QUEUED) {
+            entry.queue.remove(entry);
+        }
+        return state == State.STARTED;
+    }
+
+    /**
+     * Called when a command is done or timed out, to start the next waiting command in its slot.
+     */
+    private void release() {
+        Entry next = next();
+        while (next != null) {
+            try {
+                next.executor.execute(next.task);
+                return;
+            } catch (RejectedExecutionException e) {
+                // running it here could block whichever thread completed the previous command, such as the timeout timer
+                if (!finish(next)) return;
+                next.done.completeExceptionally(e);
+                next = next();
+            }
+        }
+    }
+
+    /**
+     * Takes the next waiting command that is not done yet into a free slot, or frees the slot if there is none.
+     */
+    private synchronized Entry next() {
+        for (LevelQueue queue : queues) {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                if (!entry.done.isDone()) {
+                    entry.state = State.STARTED;
+                    return entry;
+                }
+                entry.state = State.FINISHED;
+            }
+        }
+        permits++;
+        return null;
+    }
+
+    /**
+     * A command waiting to run. It frees its slot when its future completes. Its state is guarded by the scheduler.
+     */
+    private static final class Entry {
+
+        final Object sender;
+        final Executor executor;
+        final Runnable task;
+        final CompletableFuture<?> done;
+        State state = State.QUEUED;
+        LevelQueue queue;
+        long finish;
+        long seq;
+
+        Entry(Object sender, Executor executor, Runnable task, CompletableFuture<?> done) {
+            this.sender = sender;
+            this.executor = executor;
+            this.task = task;
+            this.done = done;
+        }
+    }
+
+    private enum State {
+        QUEUED, STARTED, FINISHED
+    }
+
+    /**
+     * The state of a sender with commands waiting in a level
+     */
+    private static final class Flow {
+        long lastFinish;
+        int waiting;
+    }
+
+    /**
+     * The waiting commands of a level, ordered by their virtual finish time.
+     * A command finishes <code>cost</code> after the later of the current virtual time and the previous command of its sender,
+     * and the virtual time is the finish time of the last command that started.
+     */
+    private final class LevelQueue {
+
+        final TreeSet<Entry> entries = new TreeSet<>((a,b)->a.finish != b.finish ? Long.compare(a.finish,b.finish) : Long.compare(a.seq,b.seq));
+        /**
+         * The senders that have waiting commands. A sender is removed when it has none, so idle senders don't keep credit or memory.
+         */
+        final Map<Object, Flow> flows = new HashMap<>();
+        long virtualTime;
+
+        void add(Entry entry, int cost) {
+            Flow flow = flows.get(entry.sender);
+            if (flow == null) {
+                flow = new Flow();
+                flows.put(entry.sender,flow);
+            } else if (flow.waiting >= capacity) {
+                throw new RejectedExecutionException("Too many waiting commands (" + capacity + ")");
+            }
+            entry.finish = Math.max(virtualTime,flow.lastFinish) + cost;
+            entry.seq = sequence++;
+            flow.lastFinish = entry.finish;
+            flow.waiting++;
+            entry.queue = this;
+            entries.add(entry);
+        }
+
+        Entry poll() {
+            Entry entry = entries.pollFirst();
+            if (entry == null) return null;
+            virtualTime = entry.finish;
+            removed(entry);
+            return entry;
+        }
+
+        /**
+         * Removes a command that is done while waiting, such as a cancelled one, so it no longer counts against its sender's capacity.
+         */
+        void remove(Entry entry) {
+            if (entries.remove(entry)) {
+                removed(entry);
+            }
+        }
+
+        private void removed(Entry entry) {
+            Flow flow = flows.get(entry.sender);
+            if (--flow.waiting == 0) {
+                flows.remove(entry.sender);
+            }
+        }
+    }
+}
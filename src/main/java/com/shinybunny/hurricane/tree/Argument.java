@@ -29,6 +29,23 @@ public class Argument extends CustomDataHolder {
     private boolean needsSpaceAfter = true;
     private SuggestionProvider suggestionProvider;
 
+    /**
+     * Whether a subclass of Argument overrides {@link #getDefault(CommandExecutionContext)} or {@link #validate(Object, CommandExecutionContext)}
+     * without compiling them with {@link #getDefaultSuppliers()} and {@link #getValidators()}
+     */
+    private static final ClassValue<Boolean> OVERRIDES_DEFAULT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return Utils.overrides(type,Argument.class,"getDefault",CommandExecutionContext.class);
+        }
+    };
+    private static final ClassValue<Boolean> OVERRIDES_VALIDATE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return Utils.overrides(type,Argument.class,"validate",Object.class,CommandExecutionContext.class);
+        }
+    };
+
     public Argument(String name, Class<?> type) {
         this.name = name;
         this.type = Hurricane.getPrimitiveWrapper(type);
@@ -74,6 +91,16 @@ public class Argument extends CustomDataHolder {
         adapter.init(this,ctx);
     }
 
+    /**
+     * Called when the command declaring this argument is registered, after all of its arguments were added,
+     * to check anything that depends on the other arguments of the command.
+     * @param cmd The command declaring this argument
+     * @param ctx The registering context, to report errors to
+     */
+    public void onRegister(CustomCommand cmd, CommandRegisteringContext ctx) {
+
+    }
+
     /**
      * Changes the name of the argument.
      * @param name The new name
@@ -170,11 +197,22 @@ public class Argument extends CustomDataHolder {
      * Either way, we also validate the value against the annotations
      */
     public void parse(InputReader reader, CommandExecutionContext ctx) throws CommandParsingException {
-        ctx.getApi().log("parsing argument " + this + " starting with: " + reader.peek());
+        Object obj = parseValue(reader, ctx, adapter, syntax, required, type, getDefaultSuppliers(), getValidators());
+        ctx.withArgument(name,new ParsedArgument(this,obj));
+    }
+
+    /**
+     * Parses the value of this argument using the settings compiled into an {@link ArgumentPlan}.
+     */
+    Object parseValue(InputReader reader, CommandExecutionContext ctx, ArgumentAdapter<?> adapter, boolean syntax, boolean required,
+                      Class<?> type, ArgumentPlan.DefaultSupplier[] defaults, ArgumentPlan.Validator[] validators) throws CommandParsingException {
+        if (ctx.getApi().isLogging(LogLevel.TRACE)) {
+            ctx.getApi().log(LogLevel.TRACE,"parsing argument " + this + " starting with: " + reader.peek());
+        }
         Object obj = null;
-        int start = reader.getPos();
-        if (isSyntax()) {
+        if (syntax) {
             if (reader.canRead()) {
+                int start = reader.getPos();
                 try {
                     obj = adapter.parse(reader, ctx, this);
                 } catch (CommandParsingException e) {
@@ -184,24 +222,53 @@ public class Argument extends CustomDataHolder {
                         throw e;
                     }
                 }
-            } else if (isRequired()) {
+            } else if (required) {
                 throw new CommandParsingException("Expected argument " + name);
             }
         }
         if (obj == null) {
             try {
-                obj = getDefault(ctx);
+                for (int i = 0; i < defaults.length && obj == null; i++) {
+                    obj = defaults[i].get(ctx);
+                }
             } catch (Exception e) {
                 throw new CommandParsingException(e.getMessage());
             }
         }
+        if (!type.isInstance(obj)) {
+            throw new CommandParsingException("Argument " + name + " must be of type " + type.getSimpleName());
+        }
         try {
-            validate(obj,ctx);
+            for (ArgumentPlan.Validator validator : validators) {
+                validator.validate(obj,ctx);
+            }
         } catch (Exception e) {
             throw new CommandParsingException(e.getMessage());
         }
-        ParsedArgument parsed = new ParsedArgument(this,obj);
-        ctx.withArgument(name,parsed);
+        return obj;
+    }
+
+    /**
+     * Gets the suppliers of the default value of this argument, in the order they are tried, to be compiled into an {@link ArgumentPlan}.
+     * Subclasses that override {@link #getDefault(CommandExecutionContext)} should override this too.
+     */
+    public ArgumentPlan.DefaultSupplier[] getDefaultSuppliers() {
+        if (OVERRIDES_DEFAULT.get(getClass())) {
+            return new ArgumentPlan.DefaultSupplier[]{this::getDefault};
+        }
+        ArgumentAdapter<?> adapter = this.adapter;
+        return new ArgumentPlan.DefaultSupplier[]{adapter::getDefault};
+    }
+
+    /**
+     * Gets the validators of this argument, besides the type check, to be compiled into an {@link ArgumentPlan}.
+     * Subclasses that override {@link #validate(Object, CommandExecutionContext)} should override this too.
+     */
+    public ArgumentPlan.Validator[] getValidators() {
+        if (OVERRIDES_VALIDATE.get(getClass())) {
+            return new ArgumentPlan.Validator[]{this::validate};
+        }
+        return new ArgumentPlan.Validator[0];
     }
 
     public void validate(Object obj, CommandExecutionContext ctx) throws Exception {
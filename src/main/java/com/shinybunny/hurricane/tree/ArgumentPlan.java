@@ -0,0 +1,130 @@
+package com.shinybunny.hurricane.tree;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.InputReader;
+import com.shinybunny.hurricane.arguments.ArgumentAdapter;
+import com.shinybunny.hurricane.util.CommandParsingException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, compiled form of the arguments of a {@link CustomCommand}, walked by the command's parse loop.
+ * <p>
+ * The settings of every argument (its adapter, whether it's part of the syntax, whether it's required and whether it needs a space after it),
+ * its type, its {@link DefaultSupplier default suppliers} and its {@link Validator validators}
+ * are read once when the plan is compiled, and stored in flat arrays indexed by the argument's position in the command.
+ * <p>
+ * A plan is compiled when its command is registered. Changing the settings of an argument after that will not affect the plan.
+ * <p>
+ * Parsed values are stored in the {@link CommandExecutionContext} in slots indexed by the position of their argument in the plan,
+ * and the plan maps the names of its arguments to their slots.
+ */
+public final class ArgumentPlan {
+
+    private static final ArgumentPlan EMPTY = new ArgumentPlan(new Argument[0]);
+
+    private final Argument[] arguments;
+    private final ArgumentAdapter<?>[] adapters;
+    private final boolean[] syntax;
+    private final boolean[] required;
+    private final boolean[] separated;
+    private final Class<?>[] types;
+    private final DefaultSupplier[][] defaults;
+    private final Validator[][] validators;
+    private final Map<String, Integer> slots;
+
+    private ArgumentPlan(Argument[] arguments) {
+        int n = arguments.length;
+        this.arguments = arguments;
+        this.adapters = new ArgumentAdapter<?>[n];
+        this.syntax = new boolean[n];
+        this.required = new boolean[n];
+        this.separated = new boolean[n];
+        this.types = new Class<?>[n];
+        this.defaults = new DefaultSupplier[n][];
+        this.validators = new Validator[n][];
+        this.slots = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Argument a = arguments[i];
+            adapters[i] = a.getAdapter();
+            syntax[i] = a.isSyntax();
+            required[i] = a.isRequired();
+            separated[i] = a.isSyntax() && a.needsSpaceAfter();
+            types[i] = a.getType();
+            defaults[i] = a.getDefaultSuppliers();
+            validators[i] = a.getValidators();
+            slots.put(a.getName(),i);
+        }
+    }
+
+    /**
+     * Compiles a plan from the current settings of the arguments.
+     * @param arguments The arguments of a command, in their order in the command
+     */
+    public static ArgumentPlan compile(List<Argument> arguments) {
+        if (arguments.isEmpty()) return EMPTY;
+        return new ArgumentPlan(arguments.toArray(new Argument[0]));
+    }
+
+    /**
+     * Parses all the arguments in order, adding their values to the context.
+     */
+    public void parse(InputReader reader, CommandExecutionContext ctx) throws CommandParsingException {
+        boolean allowMultiSpaces = ctx.getApi().isAllowMultiSpaces();
+        ctx.beginArguments(this);
+        for (int i = 0; i < arguments.length; i++) {
+            Argument a = arguments[i];
+            Object value = a.parseValue(reader, ctx, adapters[i], syntax[i], required[i], types[i], defaults[i], validators[i]);
+            ctx.setArgumentValue(i, value);
+            if (separated[i] && reader.canRead()) {
+                reader.expect(' ', "Expected a space to separate arguments!");
+                if (allowMultiSpaces) {
+                    reader.skipSpace();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return arguments.length;
+    }
+
+    public Argument getArgument(int index) {
+        return arguments[index];
+    }
+
+    /**
+     * Gets the index of the argument with the name.
+     * @return The index, or -1 if this plan has no argument with the name
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Supplies the value of an argument that was not given in the input
+     */
+    @FunctionalInterface
+    public interface DefaultSupplier {
+
+        /**
+         * @return The default value, or <code>null</code> to try the next supplier
+         */
+        Object get(CommandExecutionContext ctx) throws Exception;
+    }
+
+    /**
+     * Validates the value of an argument after it was parsed or defaulted
+     */
+    @FunctionalInterface
+    public interface Validator {
+
+        /**
+         * @throws Exception If the value is invalid, with the message to show to the sender
+         */
+        void validate(Object value, CommandExecutionContext ctx) throws Exception;
+    }
+}
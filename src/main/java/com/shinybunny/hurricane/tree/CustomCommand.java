@@ -18,6 +18,9 @@ public abstract class CustomCommand extends CustomDataHolder implements CommandE
     protected List<Argument> arguments = new ArrayList<>();
     protected String noPermsMessage = "You have no permissions to use this command!";
     protected List<CommandHook> hooks = new ArrayList<>();
+    private ArgumentPlan argumentPlan;
+    private TreeCommand parent;
+    private volatile ExecutionSettings executionSettings;
 
     public CustomCommand(String name) {
         this.name = name;
@@ -31,6 +34,10 @@ public abstract class CustomCommand extends CustomDataHolder implements CommandE
                 ctx.addError(e);
             }
         }
+        for (Argument a : arguments) {
+            a.onRegister(this,ctx);
+        }
+        argumentPlan = ArgumentPlan.compile(arguments);
     }
 
     public String getDescription() {
@@ -68,12 +75,36 @@ public abstract class CustomCommand extends CustomDataHolder implements CommandE
 
     public void addArgument(Argument arg) {
         this.arguments.add(arg);
+        this.argumentPlan = null;
     }
 
     public List<Argument> getArguments() {
         return arguments;
     }
 
+    /**
+     * Gets the argument of this command with the given name.
+     * @return The argument, or <code>null</code> if this command has no argument with that name
+     */
+    public Argument getArgument(String name) {
+        for (Argument a : arguments) {
+            if (a.getName().equals(name)) return a;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the compiled plan of this command's arguments, used when parsing the command.
+     * The plan is compiled when the command is registered, or when it's first needed if the command was never registered directly (such as a sub-command of a tree).
+     */
+    public ArgumentPlan getArgumentPlan() {
+        ArgumentPlan plan = argumentPlan;
+        if (plan == null) {
+            argumentPlan = plan = ArgumentPlan.compile(arguments);
+        }
+        return plan;
+    }
+
     public Predicate<CommandSender> getRequirement() {
         return requirement;
     }
@@ -100,8 +131,46 @@ public abstract class CustomCommand extends CustomDataHolder implements CommandE
         return name;
     }
 
+    /**
+     * Gets the tree command this command is a sub-command of, or <code>null</code> for a top level command.
+     */
+    public TreeCommand getParent() {
+        return parent;
+    }
+
+    void setParent(TreeCommand parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Gets the settings of how this command runs, as resolved when it was registered.
+     * Commands that were not registered resolve them on every call.
+     */
+    public ExecutionSettings getExecutionSettings() {
+        ExecutionSettings settings = executionSettings;
+        return settings == null ? ExecutionSettings.resolve(this) : settings;
+    }
+
+    /**
+     * Resolves the {@link #getExecutionSettings() execution settings} of this command again, from its keys and the keys of its parents.
+     * Called when the command is registered or added to a tree. Call it after changing any of those keys on a registered command.
+     */
+    public void resolveExecutionSettings() {
+        executionSettings = ExecutionSettings.resolve(this);
+    }
+
+    /**
+     * Gets the names of this command and the commands above it, separated by spaces. For example <code>team add</code>.
+     */
+    public String getPath() {
+        return parent == null ? name : parent.getPath() + " " + name;
+    }
+
     public void parse(InputReader reader, CommandExecutionContext ctx) throws CommandParsingException {
         ctx.setExecutor(this);
+        for (int i = 0; i < hooks.size(); i++) {
+            hooks.get(i).preParse(this,ctx);
+        }
         if (reader.canRead()) {
             if (ctx.getApi().isAllowMultiSpaces()) {
                 reader.skipSpace();
@@ -109,19 +178,59 @@ public abstract class CustomCommand extends CustomDataHolder implements CommandE
                 reader.expect(' ',"Expected a space to separate arguments!");
             }
         }
-        for (Argument a : arguments) {
-            a.parse(reader,ctx);
-            if (reader.canRead() && a.isSyntax() && a.needsSpaceAfter()) {
-                reader.expect(' ',"Expected a space to separate arguments!");
-                if (ctx.getApi().isAllowMultiSpaces()) {
-                    reader.skipSpace();
+        getArgumentPlan().parse(reader,ctx);
+    }
+
+    /**
+     * Calls the {@link CommandHook#postParse(CustomCommand, CommandExecutionContext) postParse} hooks of this command,
+     * once the whole input was parsed as this command.
+     */
+    public void postParse(CommandExecutionContext ctx) throws CommandParsingException {
+        for (int i = 0; i < hooks.size(); i++) {
+            hooks.get(i).postParse(this,ctx);
+        }
+    }
+
+    /**
+     * Parses the input using the first command out of the candidates the sender can use and that accepts the input.
+     * <p>
+     * Candidates are commands sharing the same literal name (for example overloads of a sub-command), in registration order.
+     * When a candidate fails parsing, the reader and the parsed arguments are reset before the next candidate is tried.
+     * If none of the candidates succeed, the first error is thrown.
+     * @param candidates The commands matching the literal that was read
+     * @param reader The input reader, positioned right after the literal
+     * @param ctx The current execution context
+     */
+    public static void parseCandidates(List<CustomCommand> candidates, InputReader reader, CommandExecutionContext ctx) throws CommandParsingException {
+        if (candidates.size() == 1) {
+            CustomCommand cmd = candidates.get(0);
+            if (!cmd.canUse(ctx.getSender())) {
+                throw new CommandParsingException(cmd.getNoPermsMessage());
+            }
+            cmd.parse(reader, ctx);
+            return;
+        }
+        int pos = reader.getPos();
+        CommandParsingException error = null;
+        for (CustomCommand cmd : candidates) {
+            try {
+                if (!cmd.canUse(ctx.getSender())) {
+                    throw new CommandParsingException(cmd.getNoPermsMessage());
                 }
+                cmd.parse(reader, ctx);
+                return;
+            } catch (CommandParsingException e) {
+                if (error == null) error = e;
+                reader.setPos(pos);
+                ctx.clearArguments();
             }
         }
+        throw error;
     }
 
     public boolean nameMatches(String name) {
-        for (String n : getNames()) {
+        if (this.name.equalsIgnoreCase(name)) return true;
+        for (String n : aliases) {
             if (n.equalsIgnoreCase(name)) return true;
         }
         return false;
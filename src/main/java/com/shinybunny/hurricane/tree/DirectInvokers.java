@@ -0,0 +1,249 @@
+package com.shinybunny.hurricane.tree;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates {@link MethodCommand.Invoker}s that call a command method directly, through a class spun by the {@link LambdaMetafactory} for that method.
+ * <p>
+ * The spun class implements one of the fixed-arity interfaces below, so the only indirection left between {@link MethodCommand#execute(com.shinybunny.hurricane.CommandExecutionContext)}
+ * and the method is a single interface call. Methods that are not public, take more than {@value #MAX_ARITY} values (counting the instance), or use
+ * classes that Hurricane's class loader can't see are left to the method handle invoker of {@link MethodCommand}.
+ */
+final class DirectInvokers {
+
+    /**
+     * The maximum number of values, including the instance of non-static methods, a direct invoker can pass.
+     */
+    static final int MAX_ARITY = 5;
+
+    private static final Class<?>[] CALLS = {Call0.class,Call1.class,Call2.class,Call3.class,Call4.class,Call5.class};
+    private static final Class<?>[] VOID_CALLS = {VoidCall0.class,VoidCall1.class,VoidCall2.class,VoidCall3.class,VoidCall4.class,VoidCall5.class};
+
+    private DirectInvokers() {
+
+    }
+
+    /**
+     * Creates a direct invoker for the method.
+     * @return The invoker, or <code>null</code> if the method can't be called directly
+     */
+    static MethodCommand.Invoker create(Method method) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        int arity = method.getParameterCount() + (isStatic ? 0 : 1);
+        if (arity > MAX_ARITY || !isAccessible(method)) return null;
+        boolean isVoid = method.getReturnType() == void.class;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle impl = lookup.unreflect(method);
+            MethodType instantiated = impl.type().wrap();
+            instantiated = instantiated.changeReturnType(isVoid ? void.class : instantiated.returnType());
+            MethodType erased = instantiated.erase().changeReturnType(isVoid ? void.class : Object.class);
+            Class<?> type = (isVoid ? VOID_CALLS : CALLS)[arity];
+            CallSite site = LambdaMetafactory.metafactory(lookup,"invoke",MethodType.methodType(type),erased,impl,instantiated);
+            Object call = site.getTarget().invoke();
+            return isVoid ? adaptVoid(call,arity,isStatic) : adapt(call,arity,isStatic);
+        } catch (IllegalAccessException | LambdaConversionException e) {
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create an invoker for " + method,e);
+        }
+    }
+
+    /**
+     * Checks that the class spun for the method can link against it: the method and its class are public,
+     * and every type in its signature resolves to the same class from Hurricane's class loader.
+     */
+    private static boolean isAccessible(Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) return false;
+        if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) return false;
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isVisible(type)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) return true;
+        try {
+            return Class.forName(type.getName(),false,DirectInvokers.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+
+    private static MethodCommand.Invoker adapt(Object call, int arity, boolean isStatic) {
+        switch (arity) {
+            case 0: {
+                Call0 c = (Call0) call;
+                return (i, a) -> c.invoke();
+            }
+            case 1: {
+                Call1 c = (Call1) call;
+                if (isStatic) return (i, a) -> c.invoke(a[0]);
+                return (i, a) -> c.invoke(i);
+            }
+            case 2: {
+                Call2 c = (Call2) call;
+                if (isStatic) return (i, a) -> c.invoke(a[0], a[1]);
+                return (i, a) -> c.invoke(i, a[0]);
+            }
+            case 3: {
+                Call3 c = (Call3) call;
+                if (isStatic) return (i, a) -> c.invoke(a[0], a[1], a[2]);
+                return (i, a) -> c.invoke(i, a[0], a[1]);
+            }
+            case 4: {
+                Call4 c = (Call4) call;
+                if (isStatic) return (i, a) -> c.invoke(a[0], a[1], a[2], a[3]);
+                return (i, a) -> c.invoke(i, a[0], a[1], a[2]);
+            }
+            case 5: {
+                Call5 c = (Call5) call;
+                if (isStatic) return (i, a) -> c.invoke(a[0], a[1], a[2], a[3], a[4]);
+                return (i, a) -> c.invoke(i, a[0], a[1], a[2], a[3]);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported arity " + arity);
+        }
+    }
+
+    private static MethodCommand.Invoker adaptVoid(Object call, int arity, boolean isStatic) {
+        switch (arity) {
+            case 0: {
+                VoidCall0 c = (VoidCall0) call;
+                return (i, a) -> {
+                    c.invoke();
+                    return null;
+                };
+            }
+            case 1: {
+                VoidCall1 c = (VoidCall1) call;
+                if (isStatic) return (i, a) -> {
+                    c.invoke(a[0]);
+                    return null;
+                };
+                return (i, a) -> {
+                    c.invoke(i);
+                    return null;
+                };
+            }
+            case 2: {
+                VoidCall2 c = (VoidCall2) call;
+                if (isStatic) return (i, a) -> {
+                    c.invoke(a[0], a[1]);
+                    return null;
+                };
+                return (i, a) -> {
+                    c.invoke(i, a[0]);
+                    return null;
+                };
+            }
+            case 3: {
+                VoidCall3 c = (VoidCall3) call;
+                if (isStatic) return (i, a) -> {
+                    c.invoke(a[0], a[1], a[2]);
+                    return null;
+                };
+                return (i, a) -> {
+                    c.invoke(i, a[0], a[1]);
+                    return null;
+                };
+            }
+            case 4: {
+                VoidCall4 c = (VoidCall4) call;
+                if (isStatic) return (i, a) -> {
+                    c.invoke(a[0], a[1], a[2], a[3]);
+                    return null;
+                };
+                return (i, a) -> {
+                    c.invoke(i, a[0], a[1], a[2]);
+                    return null;
+                };
+            }
+            case 5: {
+                VoidCall5 c = (VoidCall5) call;
+                if (isStatic) return (i, a) -> {
+                    c.invoke(a[0], a[1], a[2], a[3], a[4]);
+                    return null;
+                };
+                return (i, a) -> {
+                    c.invoke(i, a[0], a[1], a[2], a[3]);
+                    return null;
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported arity " + arity);
+        }
+    }
+
+    @FunctionalInterface
+    interface Call0 {
+        Object invoke() throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Call1 {
+        Object invoke(Object a0) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Call2 {
+        Object invoke(Object a0, Object a1) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Call3 {
+        Object invoke(Object a0, Object a1, Object a2) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Call4 {
+        Object invoke(Object a0, Object a1, Object a2, Object a3) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Call5 {
+        Object invoke(Object a0, Object a1, Object a2, Object a3, Object a4) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface VoidCall0 {
+        void invoke() throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface VoidCall1 {
+        void invoke(Object a0) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface VoidCall2 {
+        void invoke(Object a0, Object a1) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface VoidCall3 {
+        void invoke(Object a0, Object a1, Object a2) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface VoidCall4 {
+        void invoke(Object a0, Object a1, Object a2, Object a3) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface VoidCall5 {
+        void invoke(Object a0, Object a1, Object a2, Object a3, Object a4) throws Throwable;
+    }
+}
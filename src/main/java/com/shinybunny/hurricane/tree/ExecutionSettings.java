@@ -0,0 +1,81 @@
+package com.shinybunny.hurricane.tree;
+
+import com.shinybunny.hurricane.annotations.Async;
+import com.shinybunny.hurricane.annotations.ExecutionPriority;
+import com.shinybunny.hurricane.annotations.ExecutionPriority.Level;
+import com.shinybunny.hurricane.annotations.Lane;
+import com.shinybunny.hurricane.annotations.Timeout;
+import com.shinybunny.hurricane.util.Key;
+import com.shinybunny.hurricane.util.MessageTemplate;
+
+/**
+ * The settings of how a command runs, taken from the keys of the command or its closest parent that has them:
+ * its {@link Timeout}, {@link Async} executor, {@link ExecutionPriority} and {@link Lane}.
+ * <p>
+ * The settings are resolved once when the command is registered (see {@link CustomCommand#getExecutionSettings()}),
+ * so executing and scheduling the command doesn't look them up again.
+ */
+public final class ExecutionSettings {
+
+    private final Long timeout;
+    private final String executor;
+    private final Level level;
+    private final int cost;
+    private final MessageTemplate lane;
+
+    private ExecutionSettings(Long timeout, String executor, Level level, int cost, MessageTemplate lane) {
+        this.timeout = timeout;
+        this.executor = executor;
+        this.level = level;
+        this.cost = cost;
+        this.lane = lane;
+    }
+
+    /**
+     * Resolves the settings of a command from its keys and the keys of its parents.
+     */
+    public static ExecutionSettings resolve(CustomCommand cmd) {
+        Level level = find(cmd,ExecutionPriority.Adapter.LEVEL);
+        Integer cost = find(cmd,ExecutionPriority.Adapter.COST);
+        return new ExecutionSettings(find(cmd,Timeout.Adapter.TIMEOUT),find(cmd,Async.Adapter.EXECUTOR),
+                level == null ? Level.NORMAL : level,cost == null ? 1 : cost,find(cmd,Lane.Adapter.LANE));
+    }
+
+    private static <T> T find(CustomCommand cmd, Key<T> key) {
+        for (; cmd != null; cmd = cmd.getParent()) {
+            T value = cmd.getOrDefault(key);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    /**
+     * The timeout of the command in nanoseconds, where 0 means no timeout,
+     * or <code>null</code> to use the {@link com.shinybunny.hurricane.Hurricane#setExecutionTimeout(long, java.util.concurrent.TimeUnit) timeout of the API}
+     */
+    public Long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * The name of the async executor of the command, or <code>null</code> to use the default async executor
+     */
+    public String getExecutor() {
+        return executor;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * The compiled lane of the command, or <code>null</code> to use the lane of its sender
+     */
+    public MessageTemplate getLane() {
+        return lane;
+    }
+}
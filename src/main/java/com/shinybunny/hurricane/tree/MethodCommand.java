@@ -7,6 +7,9 @@ import com.shinybunny.hurricane.annotations.MethodAnnotationAdapter;
 import com.shinybunny.hurricane.util.*;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,35 +27,85 @@ import java.util.List;
  */
 public class MethodCommand extends CustomCommand implements AnnotationAdapterContainer<MethodAnnotationAdapter>, CommandExecutor {
 
+    /**
+     * The type all method invokers are adapted to: the instance (ignored for static methods) and the array of arguments.
+     */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
     private Method method;
+    private Annotation[] annotations;
     private CommandContainer container;
+    private boolean isStatic;
+    private Invoker invoker;
+    private int parameterCount;
+    private Class<?>[] parameterTypes;
 
     public MethodCommand(CommandRegisteringContext ctx, Method method, CommandContainer container) {
-        super(Utils.getName(method));
+        this(ctx,method,Utils.getName(method),method.getAnnotation(Command.class).desc(),method.getAnnotations(),container,Modifier.isStatic(method.getModifiers()),reflectiveInvoker(ctx,method));
+    }
+
+    /**
+     * Creates a method command without reflection. Used by {@link CommandRegistry command registries} generated at compile time.
+     * @param name The name of the command
+     * @param description The description of the command
+     * @param annotations The annotations declared on the method
+     * @param container The container declaring the method
+     * @param isStatic Whether the method is static, and doesn't need an instance of the container
+     * @param invoker An invoker calling the method directly
+     */
+    public MethodCommand(CommandRegisteringContext ctx, String name, String description, Annotation[] annotations, CommandContainer container, boolean isStatic, Invoker invoker) {
+        this(ctx,null,name,description,annotations,container,isStatic,invoker);
+    }
+
+    private MethodCommand(CommandRegisteringContext ctx, Method method, String name, String description, Annotation[] annotations, CommandContainer container, boolean isStatic, Invoker invoker) {
+        super(name);
         this.method = method;
+        this.annotations = annotations;
         this.noPermsMessage = ctx.getApi().getDefaultNoPermsMessage();
         this.container = container;
-        this.description = method.getAnnotation(Command.class).desc();
+        this.description = description;
+        this.isStatic = isStatic;
+        this.invoker = invoker;
+        this.parameterTypes = method == null ? new Class<?>[0] : method.getParameterTypes();
         List<MethodAnnotationAdapter> adapters = resolveAnnotationAdapters(ctx);
         for (MethodAnnotationAdapter a : adapters) {
             addHook(a.convertToHook(getAnnotation(a.getType())));
         }
     }
 
+    private static Invoker reflectiveInvoker(CommandRegisteringContext ctx, Method method) {
+        Invoker direct = DirectInvokers.create(method);
+        if (direct != null) return direct;
+        try {
+            MethodHandle handle = createInvoker(method);
+            return (instance, args) -> (Object) handle.invokeExact(instance, args);
+        } catch (IllegalAccessException e) {
+            ctx.addError(new CommandRegisterFailedException("Cannot access command method " + method, e));
+            return null;
+        }
+    }
+
+    /**
+     * Creates a method handle invoking the method, adapted to the signature <code>(Object instance, Object[] args)Object</code>.
+     * Static methods ignore the instance, and void methods return <code>null</code>.
+     */
+    private static MethodHandle createInvoker(Method method) throws IllegalAccessException {
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException ignored) {
+            // not accessible reflectively, the lookup below will fail if it's not public either
+        }
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+    }
+
     @Override
     public MethodAnnotationAdapter dummyAdapter(Class<? extends Annotation> annotationType) {
         return new MethodAnnotationAdapter() {
 
-            @Override
-            public void preExecute(MethodCommand cmd, Annotation annotation, List args, CommandExecutionContext ctx) {
-
-            }
-
-            @Override
-            public void postExecute(MethodCommand cmd, Annotation annotation, CommandResult result, CommandExecutionContext ctx) {
-
-            }
-
             @Override
             public Class getType() {
                 return annotationType;
@@ -76,15 +129,46 @@ public class MethodCommand extends CustomCommand implements AnnotationAdapterCon
         return method;
     }
 
+    @Override
+    public Annotation[] getAnnotations() {
+        return annotations;
+    }
+
     @Override
     public CustomDataHolder getDataHolder() {
         return this;
     }
 
+    /**
+     * Gets the method of this command, or <code>null</code> if it was created by a compile-time generated {@link CommandRegistry}.
+     */
     public Method getMethod() {
         return method;
     }
 
+    /**
+     * Gets the invoker calling the method of this command, or <code>null</code> if the method couldn't be accessed.
+     */
+    public Invoker getInvoker() {
+        return invoker;
+    }
+
+    @Override
+    public void addArgument(Argument arg) {
+        super.addArgument(arg);
+        if (arg instanceof ParameterArgument) {
+            int index = ((ParameterArgument) arg).getIndex();
+            parameterCount = Math.max(parameterCount, index + 1);
+            if (method == null) {
+                // compiled commands only know the (wrapped) argument types
+                if (index >= parameterTypes.length) {
+                    parameterTypes = Arrays.copyOf(parameterTypes, index + 1);
+                }
+                parameterTypes[index] = arg.getType();
+            }
+        }
+    }
+
     public CommandContainer getContainer() {
         return container;
     }
@@ -96,21 +180,36 @@ public class MethodCommand extends CustomCommand implements AnnotationAdapterCon
 
     @Override
     public CommandResult<Object> execute(CommandExecutionContext ctx) throws CommandFailedException {
-        ctx.getApi().log("performing execution of method command " + this);
-        Object instance = Modifier.isStatic(method.getModifiers()) ? null : container.getInstance(ctx);
-        Object[] args = new Object[method.getParameterCount()];
-        ctx.getApi().log("\tgathering arguments...");
-        for (ParsedArgument arg : ctx.getArguments()) {
-            Argument a = arg.getArgument();
-            if (a instanceof ParameterArgument) {
-                ctx.getApi().log("\t\t[" + a.name + "] = " + arg.getValue());
-                args[((ParameterArgument) a).getIndex()] = arg.getValue();
+        Hurricane api = ctx.getApi();
+        boolean trace = api.isLogging(LogLevel.TRACE);
+        if (trace) api.log(LogLevel.TRACE,"performing execution of method command " + this);
+        Object instance = isStatic ? null : container.getInstance(ctx);
+        Object[] args = new Object[parameterCount];
+        if (trace) api.log(LogLevel.TRACE,"\tgathering arguments...");
+        ArgumentPlan plan = ctx.getArgumentPlan();
+        if (plan == getArgumentPlan()) {
+            for (int i = 0; i < plan.size(); i++) {
+                Argument a = plan.getArgument(i);
+                if (a instanceof ParameterArgument) {
+                    Object value = ctx.getArgumentValue(i);
+                    if (trace) api.log(LogLevel.TRACE,"\t\t[" + a.name + "] = " + value);
+                    args[((ParameterArgument) a).getIndex()] = value;
+                }
+            }
+        } else {
+            // arguments that were added to the context by name
+            for (ParsedArgument arg : ctx.getArguments()) {
+                Argument a = arg.getArgument();
+                if (a instanceof ParameterArgument) {
+                    if (trace) api.log(LogLevel.TRACE,"\t\t[" + a.name + "] = " + arg.getValue());
+                    args[((ParameterArgument) a).getIndex()] = arg.getValue();
+                }
             }
         }
-        ctx.getApi().log("\trunning preExecute...");
+        if (trace) api.log(LogLevel.TRACE,"\trunning preExecute...");
         for (CommandHook h : hooks) {
             try {
-                ctx.getApi().log("\t\t" + h);
+                if (trace) api.log(LogLevel.TRACE,"\t\t" + h);
                 List<Object> tempArgs = new ArrayList<>(Arrays.asList(args));
                 h.preExecute(this, tempArgs, ctx);
                 args = tempArgs.toArray();
@@ -118,41 +217,74 @@ public class MethodCommand extends CustomCommand implements AnnotationAdapterCon
                 return CommandResult.fail(e);
             }
         }
+        if (invoker == null) {
+            throw new CommandFailedException("Cannot access command method " + (method == null ? name : method));
+        }
+        checkArguments(args);
         Object ret;
         try {
-            ctx.getApi().log("\tinvoking method " + method);
-            ret = method.invoke(instance, args);
-        } catch (InvocationTargetException e) {
-            ret = CommandResult.fail(e.getCause());
-        } catch (IllegalArgumentException | IllegalAccessException e) {
-            e.printStackTrace();
-            throw new CommandFailedException(e);
+            if (trace) api.log(LogLevel.TRACE,"\tinvoking method " + (method == null ? name : method));
+            ret = invoker.invoke(instance, args);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            ret = CommandResult.fail(e);
         }
         CommandResult<Object> result = CommandResult.from(ret);
-        ctx.getApi().log("\trunning postExecute...");
+        if (trace) api.log(LogLevel.TRACE,"\trunning postExecute...");
         for (CommandHook h : hooks) {
-            ctx.getApi().log("\t\t" + h);
+            if (trace) api.log(LogLevel.TRACE,"\t\t" + h);
             h.postExecute(this,result,ctx);
         }
-        ctx.getApi().log("\tdone!");
+        if (trace) api.log(LogLevel.TRACE,"\tdone!");
         return result;
     }
 
+    /**
+     * Checks the arguments match the parameters of the method, so anything the invoker throws came from the method itself.
+     * @throws CommandFailedException if an argument can't be passed to its parameter
+     */
+    private void checkArguments(Object[] args) throws CommandFailedException {
+        if (args.length != parameterTypes.length) {
+            throw new CommandFailedException("Expected " + parameterTypes.length + " arguments for " + (method == null ? name : method) + ", got " + args.length);
+        }
+        for (int i = 0; i < args.length; i++) {
+            Class<?> type = parameterTypes[i];
+            if (type == null) continue;
+            if (args[i] == null ? type.isPrimitive() : !Hurricane.getPrimitiveWrapper(type).isInstance(args[i])) {
+                throw new CommandFailedException("Argument " + i + " of " + (method == null ? name : method) + " must be " + type.getName() + ", got " + (args[i] == null ? "null" : args[i].getClass().getName()));
+            }
+        }
+    }
+
     public boolean hasAnnotation(Class<? extends Annotation> a) {
-        return method.isAnnotationPresent(a);
+        return getAnnotation(a) != null;
     }
 
     public <A extends Annotation> A getAnnotation(Class<A> a) {
-        return method.getAnnotation(a);
+        return Utils.findAnnotation(annotations,a);
     }
 
     @Override
     public String toString() {
         return "MethodCommand{" +
                 "name='" + name + '\'' +
-                ", method=" + method +
+                ", method=" + (method == null ? "<compiled>" : method) +
                 "}";
     }
 
+    /**
+     * Invokes the method of a {@link MethodCommand}.
+     */
+    @FunctionalInterface
+    public interface Invoker {
 
+        /**
+         * Invokes the method.
+         * @param instance The instance of the container, or <code>null</code> if the method is static
+         * @param args The arguments to pass to the method, in the order of its parameters
+         * @return The value returned by the method, or <code>null</code> if it's void
+         */
+        Object invoke(Object instance, Object[] args) throws Throwable;
+    }
 }
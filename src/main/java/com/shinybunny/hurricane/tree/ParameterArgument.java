@@ -1,5 +1,6 @@
 package com.shinybunny.hurricane.tree;
 
+import com.shinybunny.hurricane.CommandRegistry;
 import com.shinybunny.hurricane.Hurricane;
 import com.shinybunny.hurricane.CommandExecutionContext;
 import com.shinybunny.hurricane.CommandRegisteringContext;
@@ -8,10 +9,13 @@ import com.shinybunny.hurricane.annotations.AnnotationAdapterContainer;
 import com.shinybunny.hurricane.annotations.ParamAnnotationAdapter;
 import com.shinybunny.hurricane.util.CommandRegisterFailedException;
 import com.shinybunny.hurricane.util.CustomDataHolder;
+import com.shinybunny.hurricane.util.Utils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,19 +31,62 @@ public class ParameterArgument extends Argument implements AnnotationAdapterCont
      * The {@link Parameter} this argument is created from
      */
     private final Parameter parameter;
+    /**
+     * The annotations declared on the parameter
+     */
+    private final Annotation[] annotations;
     /**
      * A sorted list of {@link ParamAnnotationAdapter}s created from the annotations declared on the parameter.
      * The list is sorted by their {@link AnnotationAdapter#getPriorityOn(AnnotationAdapter, CommandRegisteringContext) priority} value
      */
     private List<ParamAnnotationAdapter> annotationAdapters;
+    /**
+     * The adapters overriding {@link ParamAnnotationAdapter#validate}, each bound to its annotation instance
+     */
+    private ArgumentPlan.Validator[] validators = new ArgumentPlan.Validator[0];
+    /**
+     * The adapters overriding {@link ParamAnnotationAdapter#getDefault}, each bound to its annotation instance
+     */
+    private ArgumentPlan.DefaultSupplier[] defaultProviders = new ArgumentPlan.DefaultSupplier[0];
     /**
      * The index of the {@link #parameter} in the declaring method
      */
     private final int index;
 
+    private static final ClassValue<Boolean> VALIDATES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return Utils.overrides(type,ParamAnnotationAdapter.class,"validate",Object.class,Annotation.class,ParameterArgument.class,CommandExecutionContext.class)
+                    || Utils.overrides(type,ParamAnnotationAdapter.class,"createValidator",Annotation.class,ParameterArgument.class);
+        }
+    };
+    private static final ClassValue<Boolean> PROVIDES_DEFAULT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return Utils.overrides(type,ParamAnnotationAdapter.class,"getDefault",Annotation.class,ParameterArgument.class,CommandExecutionContext.class)
+                    || Utils.overrides(type,ParamAnnotationAdapter.class,"createDefaultSupplier",Annotation.class,ParameterArgument.class);
+        }
+    };
+
     public ParameterArgument(Parameter parameter, int index) {
-        super(parameter.getName(),parameter.getType());
+        this(parameter,parameter.getName(),parameter.getType(),index,parameter.getAnnotations());
+    }
+
+    /**
+     * Creates a parameter argument without reflection. Used by {@link CommandRegistry command registries} generated at compile time.
+     * @param name The name of the parameter
+     * @param type The type of the parameter
+     * @param index The index of the parameter in the declaring method
+     * @param annotations The annotations declared on the parameter
+     */
+    public ParameterArgument(String name, Class<?> type, int index, Annotation[] annotations) {
+        this(null,name,type,index,annotations);
+    }
+
+    private ParameterArgument(Parameter parameter, String name, Class<?> type, int index, Annotation[] annotations) {
+        super(name,type);
         this.parameter = parameter;
+        this.annotations = annotations;
         this.index = index;
     }
 
@@ -49,54 +96,89 @@ public class ParameterArgument extends Argument implements AnnotationAdapterCont
         if (annotationAdapters != null) return;
         annotationAdapters = resolveAnnotationAdapters(ctx);
         try {
-            for (ParamAnnotationAdapter a : annotationAdapters) {
-                a.init(parameter.getAnnotation(a.getType()),this,ctx);
+            for (ParamAnnotationAdapter<?> a : annotationAdapters) {
+                initAdapter(a,ctx);
             }
         } catch (CommandRegisterFailedException e) {
             ctx.addError(e);
         }
+        List<ArgumentPlan.Validator> validating = new ArrayList<>();
+        List<ArgumentPlan.DefaultSupplier> providing = new ArrayList<>();
+        for (ParamAnnotationAdapter<?> a : annotationAdapters) {
+            if (VALIDATES.get(a.getClass())) validating.add(bindValidator(a));
+            if (PROVIDES_DEFAULT.get(a.getClass())) providing.add(bindDefault(a));
+        }
+        validators = validating.toArray(new ArgumentPlan.Validator[0]);
+        defaultProviders = providing.toArray(new ArgumentPlan.DefaultSupplier[0]);
+    }
+
+    @Override
+    public void onRegister(CustomCommand cmd, CommandRegisteringContext ctx) {
+        if (annotationAdapters == null) return;
+        for (ParamAnnotationAdapter<?> a : annotationAdapters) {
+            onRegister(a,cmd,ctx);
+        }
+    }
+
+    private <A extends Annotation> void onRegister(ParamAnnotationAdapter<A> adapter, CustomCommand cmd, CommandRegisteringContext ctx) {
+        adapter.onRegister(getAnnotation(adapter.getType()),this,cmd,ctx);
+    }
+
+    private <A extends Annotation> void initAdapter(ParamAnnotationAdapter<A> adapter, CommandRegisteringContext ctx) throws CommandRegisterFailedException {
+        adapter.init(getAnnotation(adapter.getType()),this,ctx);
+    }
+
+    private <A extends Annotation> ArgumentPlan.Validator bindValidator(ParamAnnotationAdapter<A> adapter) {
+        return adapter.createValidator(getAnnotation(adapter.getType()),this);
+    }
+
+    private <A extends Annotation> ArgumentPlan.DefaultSupplier bindDefault(ParamAnnotationAdapter<A> adapter) {
+        return adapter.createDefaultSupplier(getAnnotation(adapter.getType()),this);
     }
 
     @Override
     public void validate(Object obj, CommandExecutionContext ctx) throws Exception {
         super.validate(obj,ctx);
-        for (ParamAnnotationAdapter a : annotationAdapters) {
-            a.validate(obj,getAnnotation(a),this,ctx);
+        for (ArgumentPlan.Validator v : validators) {
+            v.validate(obj,ctx);
         }
     }
 
     @Override
     public Object getDefault(CommandExecutionContext ctx) throws Exception {
-        for (ParamAnnotationAdapter a : annotationAdapters) {
-            Object def = a.getDefault(getAnnotation(a), this, ctx);
+        for (ArgumentPlan.DefaultSupplier s : defaultProviders) {
+            Object def = s.get(ctx);
             if (def != null) return def;
         }
         return getAdapter().getDefault(ctx);
     }
 
-    private Annotation getAnnotation(ParamAnnotationAdapter a) {
-        return parameter.getAnnotation(a.getType());
+    @Override
+    public ArgumentPlan.DefaultSupplier[] getDefaultSuppliers() {
+        ArgumentPlan.DefaultSupplier[] suppliers = Arrays.copyOf(defaultProviders,defaultProviders.length + 1);
+        suppliers[defaultProviders.length] = super.getDefaultSuppliers()[0];
+        return suppliers;
+    }
+
+    @Override
+    public ArgumentPlan.Validator[] getValidators() {
+        return validators.clone();
     }
 
     @Override
     public boolean hasAnnotation(Class<? extends Annotation> annotationType) {
-        return parameter.isAnnotationPresent(annotationType);
+        return getAnnotation(annotationType) != null;
     }
 
     @Override
     public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
-        return parameter.getAnnotation(annotationType);
+        return Utils.findAnnotation(annotations,annotationType);
     }
 
     @Override
     public ParamAnnotationAdapter dummyAdapter(Class<? extends Annotation> annotationType) {
         return new ParamAnnotationAdapter() {
 
-            @Override
-            public void validate(Object value, Annotation annotation, ParameterArgument argument, CommandExecutionContext ctx) throws Exception {
-
-            }
-
             @Override
             public Class getType() {
                 return annotationType;
@@ -115,11 +197,19 @@ public class ParameterArgument extends Argument implements AnnotationAdapterCont
         return ctx.getApi().getParamAnnotationAdapter(annotationType);
     }
 
+    /**
+     * Gets the parameter of this argument, or <code>null</code> if it was created by a compile-time generated {@link CommandRegistry}.
+     */
     @Override
     public AnnotatedElement getAnnotatedElement() {
         return parameter;
     }
 
+    @Override
+    public Annotation[] getAnnotations() {
+        return annotations;
+    }
+
     @Override
     public CustomDataHolder getDataHolder() {
         return this;
@@ -139,7 +229,7 @@ public class ParameterArgument extends Argument implements AnnotationAdapterCont
                 "name=" + name +
                 ", type=" + getType() +
                 ", required=" + isRequired() +
-                ", parameter=" + parameter +
+                ", parameter=" + (parameter == null ? "<compiled>" : parameter) +
                 ", index=" + index +
                 ")";
     }
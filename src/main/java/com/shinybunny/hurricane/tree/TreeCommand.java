@@ -6,21 +6,21 @@ import com.shinybunny.hurricane.CommandResult;
 import com.shinybunny.hurricane.InputReader;
 import com.shinybunny.hurricane.util.CommandFailedException;
 import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.LiteralTrie;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a command with multiple sub-commands. These sub commands may also be <code>TreeCommand</code>s
  */
 public class TreeCommand extends CustomCommand {
 
-    private List<CustomCommand> subCommands;
+    private final List<CustomCommand> subCommands = new CopyOnWriteArrayList<>();
+    private volatile LiteralTrie<CustomCommand> subCommandIndex = new LiteralTrie<>();
 
     public TreeCommand(String name) {
         super(name);
-        subCommands = new ArrayList<>();
     }
 
     public TreeCommand description(String description) {
@@ -36,23 +36,36 @@ public class TreeCommand extends CustomCommand {
                 reader.expect(' ',"Expected a space!");
             }
         }
-        for (CustomCommand cmd : subCommands) {
-            Optional<String> opt = reader.readOneOf(ctx.getApi().areLiteralsIgnoreCase(), cmd.getNames().toArray(new String[0]));
-            if (reader.canRead() && reader.peek() != ' ') continue;
-            if (opt.isPresent()) {
-                if (cmd.canUse(ctx.getSender())) {
-                    cmd.parse(reader, ctx);
-                    return;
-                } else {
-                    throw new CommandParsingException(cmd.getNoPermsMessage());
-                }
-            }
+        List<CustomCommand> candidates = subCommandIndex.read(reader, ctx.getApi().areLiteralsIgnoreCase());
+        if (candidates.isEmpty()) {
+            throw new CommandParsingException("Invalid sub-command " + reader.readWord());
         }
-        throw new CommandParsingException("Invalid sub-command " + reader.readWord());
+        parseCandidates(candidates, reader, ctx);
     }
 
-    public void addSubCommand(CustomCommand sc) {
+    /**
+     * Adds a sub-command to this tree. The names and aliases the sub-command has at this point are indexed for parsing.
+     */
+    public synchronized void addSubCommand(CustomCommand sc) {
         this.subCommands.add(sc);
+        sc.setParent(this);
+        sc.resolveExecutionSettings();
+        LiteralTrie<CustomCommand> index = subCommandIndex;
+        for (String name : sc.getNames()) {
+            index = index.with(name, sc);
+        }
+        subCommandIndex = index;
+    }
+
+    /**
+     * Resolves the execution settings of this tree and of all of its sub-commands, which inherit them.
+     */
+    @Override
+    public void resolveExecutionSettings() {
+        super.resolveExecutionSettings();
+        for (CustomCommand sc : subCommands) {
+            sc.resolveExecutionSettings();
+        }
     }
 
     /**
@@ -1,17 +1,15 @@
 package com.shinybunny.hurricane.util;
 
 import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.Hurricane;
 import com.shinybunny.hurricane.InputReader;
-import com.shinybunny.hurricane.tree.ParsedArgument;
 
-import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An access expression is a string expressing a value accessed from the parameters of a command, using java-like code.
@@ -38,153 +36,697 @@ import java.util.Optional;
  *     </ul>
  *
  *     You cannot declare any temporary variables or have any operator expressions (because that'd be too complicated to parse).
+ * <p>
+ * Expressions are {@link #compile(String) compiled} once into a tree of nodes, and then {@link #evaluate(CommandExecutionContext) evaluated} for every execution.
+ * Each member access remembers the method handle it used for the last receiver class, so evaluating it again on the same class skips the lookup.
+ * Accessing a member of <code>null</code> evaluates the whole expression to <code>null</code>.
  */
 public class AccessExpression {
 
-    private final CommandExecutionContext ctx;
-    private final InputReader reader;
-
-    public AccessExpression(String expression, CommandExecutionContext ctx) {
-        this.reader = new InputReader(expression);
-        this.ctx = ctx;
-    }
-
-    public Object parseValue() throws Exception {
-        reader.skipSpace();
-        Object value;
-        if (reader.readPhrase("new ",false)) {
-            value = parseNewInstance(reader,ctx);
-        } else if (reader.peek() == '"') {
-            value = parseString(reader);
-        } else if (reader.peek() == '\'') {
-            reader.next();
-            char c = reader.next();
-            reader.expect('\'',"Expected ' to close char");
-            return c;
-        } else if ((reader.peek() == '-' && Character.isDigit(reader.peek(1))) || Character.isDigit(reader.peek())) {
-            return reader.readAnyNumber();
-        } else {
-            Optional<String> b = reader.readOneOf(false,"true","false");
-            if (b.isPresent()) {
-                return Boolean.parseBoolean(b.get());
-            } else if (reader.readPhrase("null",false)) {
-                return null;
-            } else {
-                String id = reader.readIdentifier();
-                if (id.isEmpty()) {
-                    throw new Exception("Expected identifier at: " + reader.markerHere());
-                }
-                Optional<ParsedArgument> arg = ctx.getArg(id);
-                if (!arg.isPresent()) {
-                    throw new Exception("Unknown parameter '" + id + "'!");
-                }
-                value = arg.get().getValue();
-            }
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType ELEMENT_GETTER_TYPE = MethodType.methodType(Object.class, Object.class, int.class);
+
+    private final String expression;
+    private final Node root;
+
+    private AccessExpression(String expression, Node root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    /**
+     * Compiles an expression.
+     * @param expression The expression string
+     * @throws CommandParsingException If the expression is malformed
+     */
+    public static AccessExpression compile(String expression) throws CommandParsingException {
+        return compile(expression,false);
+    }
+
+    /**
+     * Compiles an expression.
+     * @param expression The expression string
+     * @param resultVariable True if the name <code>result</code> refers to the value returned by the command, instead of to an argument
+     * @throws CommandParsingException If the expression is malformed
+     */
+    public static AccessExpression compile(String expression, boolean resultVariable) throws CommandParsingException {
+        Parser parser = new Parser(expression,resultVariable);
+        Node root = parser.parseExpression();
+        parser.reader.skipSpace();
+        if (parser.reader.canRead()) {
+            throw new CommandParsingException("Unexpected '" + parser.reader.peek() + "' in expression",parser.reader.markerHere());
         }
-        return parseAccess(value);
+        return new AccessExpression(expression,root);
     }
 
-    private Object parseAccess(Object value) throws Exception {
-        reader.skipSpace();
-        if (reader.peek() == '.') {
-            if (value == null) throw new Exception("Trying to access a null value! " + reader.markerHere());
-            reader.next();
+    /**
+     * Evaluates the expression using the arguments of the execution context.
+     */
+    public Object evaluate(CommandExecutionContext ctx) throws Exception {
+        return evaluate(ctx,null);
+    }
+
+    /**
+     * Evaluates the expression using the arguments of the execution context and the result of the command.
+     * @param result The value <code>result</code> refers to, if the expression was compiled with a result variable
+     */
+    public Object evaluate(CommandExecutionContext ctx, Object result) throws Exception {
+        try {
+            return root.evaluate(ctx,result);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new Exception(t);
+        }
+    }
+
+    /**
+     * Gets the names of all the arguments this expression refers to.
+     */
+    public Set<String> getArgumentNames() {
+        Set<String> names = new LinkedHashSet<>();
+        root.collectArguments(names);
+        return names;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static class Parser {
+
+        private final InputReader reader;
+        private final boolean resultVariable;
+
+        private Parser(String expression, boolean resultVariable) {
+            this.reader = new InputReader(expression);
+            this.resultVariable = resultVariable;
+        }
+
+        private Node parseExpression() throws CommandParsingException {
             reader.skipSpace();
-            String field = reader.readIdentifier();
-            if (field.isEmpty()) {
-                throw new Exception("Expected identifier at: " + reader.markerHere());
+            return parseAccess(parseValue());
+        }
+
+        private Node parseValue() throws CommandParsingException {
+            if (!reader.canRead()) {
+                throw new CommandParsingException("Expected an expression",reader.markerHere());
             }
-            reader.skipSpace();
-            Class<?> cls = value.getClass();
-            if (reader.peek() == '(') {
-                List<Method> methods = new ArrayList<>();
-                methods.addAll(Arrays.asList(cls.getMethods()));
-                methods.addAll(Arrays.asList(cls.getDeclaredMethods()));
-                List<Method> matching = new ArrayList<>();
-                for (Method m : methods) {
-                    if (m.getName().equals(field)) {
-                        matching.add(m);
-                    }
-                }
-                if (matching.isEmpty()) {
-                    throw new Exception("Unknown method " + field);
-                }
+            char c = reader.peek();
+            if (c == '"') {
                 reader.next();
-                reader.skipSpace();
-                List<Object> args = readMethodParams();
-                for (Method m : matching) {
-                    m.setAccessible(true);
-                    try {
-                        value = m.invoke(value,args.toArray(new Object[0]));
-                        break;
-                    } catch (IllegalAccessException | IllegalArgumentException ignored) {
+                String str = reader.readUntil('"','\\');
+                reader.expect('"',"Expected \" to close string");
+                return new Literal(str);
+            }
+            if (c == '\'') {
+                reader.next();
+                if (!reader.canRead()) throw new CommandParsingException("Expected a char",reader.markerHere());
+                char value = reader.next();
+                reader.expect('\'',"Expected ' to close char");
+                return new Literal(value);
+            }
+            if (InputReader.isDigit(c) || (c == '-' && InputReader.isDigit(reader.peek(1)))) {
+                return new Literal(reader.readAnyNumber());
+            }
+            int start = reader.getPos();
+            String word = reader.readIdentifier();
+            switch (word) {
+                case "true":
+                case "false":
+                    return new Literal(Boolean.parseBoolean(word));
+                case "null":
+                    return new Literal(null);
+                case "new":
+                    if (reader.canRead() && Character.isWhitespace(reader.peek())) {
+                        return parseNewInstance();
+                    }
+            }
+            reader.setPos(start);
+            // argument names may contain spaces when defined with @Arg, so they end only at a delimiter
+            String name = reader.readWhile(ch->".[](),\"'".indexOf(ch) < 0).trim();
+            if (name.isEmpty()) {
+                throw new CommandParsingException("Expected an expression",reader.markerHere());
+            }
+            if (resultVariable && name.equalsIgnoreCase("result")) {
+                return new ResultRef();
+            }
+            return new ArgumentRef(name);
+        }
 
+        private Node parseAccess(Node node) throws CommandParsingException {
+            while (true) {
+                reader.skipSpace();
+                if (!reader.canRead()) return node;
+                if (reader.peek() == '.') {
+                    reader.next();
+                    reader.skipSpace();
+                    String member = reader.readIdentifier();
+                    if (member.isEmpty()) {
+                        throw new CommandParsingException("Expected identifier",reader.markerHere());
                     }
-                }
-            } else {
-                List<Field> fields = new ArrayList<>();
-                fields.addAll(Arrays.asList(cls.getFields()));
-                fields.addAll(Arrays.asList(cls.getDeclaredFields()));
-                Field matching = null;
-                for (Field f : fields) {
-                    if (f.getName().equals(field)) {
-                        matching = f;
+                    reader.skipSpace();
+                    if (reader.canRead() && reader.peek() == '(') {
+                        reader.next();
+                        node = new MethodCall(node,member,parseParams());
+                    } else {
+                        node = new FieldAccess(node,member);
                     }
+                } else if (reader.peek() == '[') {
+                    reader.next();
+                    Node index = parseExpression();
+                    reader.skipSpace();
+                    reader.expect(']',"Expected ]");
+                    node = new IndexAccess(node,index);
+                } else {
+                    return node;
                 }
-                if (matching == null) {
-                    throw new Exception("Unknown field " + field);
-                }
-                value = matching.get(value);
             }
-        } else if (reader.peek() == '[') {
-            if (value == null) throw new Exception("Trying to access a null value! " + reader.markerHere());
-            if (!value.getClass().isArray()) throw new Exception("Trying to access index of a non-array value! " + reader.markerHere());
+        }
+
+        private Node parseNewInstance() throws CommandParsingException {
             reader.skipSpace();
             int start = reader.getPos();
-            Object index = parseValue();
-            if (!(index instanceof Integer)) {
-                throw new Exception("Index value must be an integer! at " + reader.markerSince(start));
+            String className = reader.readWhile(ch->InputReader.isWordChar(ch) || ch == '.' || ch == '$');
+            Class<?> cls;
+            try {
+                ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                cls = Class.forName(className,false,loader == null ? AccessExpression.class.getClassLoader() : loader);
+            } catch (ClassNotFoundException e) {
+                throw new CommandParsingException("Unknown class " + className,e,reader.markerSince(start));
+            }
+            reader.skipSpace();
+            reader.expect('(',"Expected (");
+            return new NewInstance(cls,parseParams());
+        }
+
+        /**
+         * Parses the parameters of a method or a constructor, after the opening parenthesis.
+         */
+        private Node[] parseParams() throws CommandParsingException {
+            List<Node> params = new ArrayList<>();
+            reader.skipSpace();
+            if (reader.canRead() && reader.peek() == ')') {
+                reader.next();
+                return new Node[0];
             }
-            reader.expect(']',"Expected ]");
-            value = Array.get(value,(int)index);
-        } else {
+            while (true) {
+                params.add(parseExpression());
+                reader.skipSpace();
+                if (reader.canRead() && reader.peek() == ',') {
+                    reader.next();
+                    continue;
+                }
+                reader.expect(')',"Expected )");
+                return params.toArray(new Node[0]);
+            }
+        }
+    }
+
+    private static abstract class Node {
+
+        abstract Object evaluate(CommandExecutionContext ctx, Object result) throws Throwable;
+
+        void collectArguments(Set<String> names) {
+
+        }
+
+        static Object[] evaluateAll(Node[] nodes, CommandExecutionContext ctx, Object result) throws Throwable {
+            Object[] values = new Object[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                values[i] = nodes[i].evaluate(ctx,result);
+            }
+            return values;
+        }
+
+        static void collectAll(Node[] nodes, Set<String> names) {
+            for (Node n : nodes) {
+                n.collectArguments(names);
+            }
+        }
+    }
+
+    private static class Literal extends Node {
+
+        private final Object value;
+
+        private Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(CommandExecutionContext ctx, Object result) {
             return value;
         }
-        return parseAccess(value);
     }
 
-    private String parseString(InputReader reader) {
-        return reader.readQuotableString();
+    private static class ArgumentRef extends Node {
+
+        private final String name;
+
+        private ArgumentRef(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(CommandExecutionContext ctx, Object result) throws Exception {
+            int slot = ctx.getArgumentSlot(name);
+            if (slot >= 0) {
+                return ctx.getArgumentValue(slot);
+            }
+            if (!ctx.hasArgument(name)) {
+                throw new Exception("Unknown argument named " + name);
+            }
+            return ctx.getArgumentValue(name);
+        }
+
+        @Override
+        void collectArguments(Set<String> names) {
+            names.add(name);
+        }
+    }
+
+    private static class ResultRef extends Node {
+
+        @Override
+        Object evaluate(CommandExecutionContext ctx, Object result) {
+            return result;
+        }
     }
 
-    private Object parseNewInstance(InputReader reader, CommandExecutionContext ctx) throws Exception {
-        reader.skipSpace();
-        String className = reader.readUntil('(',(char) 0).trim();
-        Class<?> cls = Class.forName(className);
-        reader.expect('(',"Expected (");
+    private static class FieldAccess extends Node {
 
-        List<Object> args = readMethodParams();
-        for (Constructor ctor : cls.getConstructors()) {
-            try {
-                return ctor.newInstance(args.toArray());
-            } catch (Exception ignored) { }
+        private final Node target;
+        private final String name;
+        /**
+         * The getter used for the last receiver class
+         */
+        private CallSite site;
+
+        private FieldAccess(Node target, String name) {
+            this.target = target;
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(CommandExecutionContext ctx, Object result) throws Throwable {
+            Object receiver = target.evaluate(ctx,result);
+            if (receiver == null) return null;
+            CallSite site = this.site;
+            if (site == null || site.type != receiver.getClass()) {
+                this.site = site = new CallSite(receiver.getClass(),null,null,Members.getter(receiver.getClass(),name));
+            }
+            return (Object) site.handle.invokeExact(receiver);
+        }
+
+        @Override
+        void collectArguments(Set<String> names) {
+            target.collectArguments(names);
         }
-        throw new Exception("No constructor matched the parameters passed to the new " + cls.getSimpleName() + "() expression");
     }
 
-    private List<Object> readMethodParams() throws Exception {
-        List<Object> args = new ArrayList<>();
-        while (reader.canRead()) {
-            reader.skipSpace();
-            args.add(parseValue());
-            reader.skipSpace();
-            if (reader.peek() != ',') {
-                reader.expect(')',"Expected )");
-                break;
+    private static class MethodCall extends Node {
+
+        private final Node target;
+        private final String name;
+        private final Node[] params;
+        /**
+         * The method used for the last receiver class and parameter classes
+         */
+        private CallSite site;
+
+        private MethodCall(Node target, String name, Node[] params) {
+            this.target = target;
+            this.name = name;
+            this.params = params;
+        }
+
+        @Override
+        Object evaluate(CommandExecutionContext ctx, Object result) throws Throwable {
+            Object receiver = target.evaluate(ctx,result);
+            if (receiver == null) return null;
+            Object[] args = evaluateAll(params,ctx,result);
+            CallSite site = this.site;
+            if (site == null || !site.matches(receiver.getClass(),args)) {
+                Method m = Members.method(receiver.getClass(),name,args);
+                this.site = site = new CallSite(receiver.getClass(),CallSite.classesOf(args),m.getParameterTypes(),Members.invoker(m));
             }
-            reader.next();
+            return (Object) site.handle.invokeExact(receiver,site.coerce(args));
+        }
+
+        @Override
+        void collectArguments(Set<String> names) {
+            target.collectArguments(names);
+            collectAll(params,names);
         }
-        return args;
     }
 
+    private static class NewInstance extends Node {
+
+        private final Class<?> type;
+        private final Node[] params;
+        private CallSite site;
+
+        private NewInstance(Class<?> type, Node[] params) {
+            this.type = type;
+            this.params = params;
+        }
+
+        @Override
+        Object evaluate(CommandExecutionContext ctx, Object result) throws Throwable {
+            Object[] args = evaluateAll(params,ctx,result);
+            CallSite site = this.site;
+            if (site == null || !site.matches(type,args)) {
+                Constructor<?> c = Members.constructor(type,args);
+                this.site = site = new CallSite(type,CallSite.classesOf(args),c.getParameterTypes(),Members.constructorInvoker(c));
+            }
+            return (Object) site.handle.invokeExact(site.coerce(args));
+        }
+
+        @Override
+        void collectArguments(Set<String> names) {
+            collectAll(params,names);
+        }
+    }
+
+    private static class IndexAccess extends Node {
+
+        private final Node target;
+        private final Node index;
+        private CallSite site;
+
+        private IndexAccess(Node target, Node index) {
+            this.target = target;
+            this.index = index;
+        }
+
+        @Override
+        Object evaluate(CommandExecutionContext ctx, Object result) throws Throwable {
+            Object array = target.evaluate(ctx,result);
+            if (array == null) return null;
+            Object i = index.evaluate(ctx,result);
+            if (!array.getClass().isArray()) {
+                throw new Exception("Trying to access index of a non-array value " + array);
+            }
+            if (!(i instanceof Integer || i instanceof Short || i instanceof Byte)) {
+                throw new Exception("Index value must be an integer, got " + i);
+            }
+            CallSite site = this.site;
+            if (site == null || site.type != array.getClass()) {
+                this.site = site = new CallSite(array.getClass(),null,null,MethodHandles.arrayElementGetter(array.getClass()).asType(ELEMENT_GETTER_TYPE));
+            }
+            return (Object) site.handle.invokeExact(array,((Number) i).intValue());
+        }
+
+        @Override
+        void collectArguments(Set<String> names) {
+            target.collectArguments(names);
+            index.collectArguments(names);
+        }
+    }
+
+    /**
+     * A monomorphic inline cache entry: the handle resolved for a receiver class and the classes of the parameters passed to it.
+     */
+    private static class CallSite {
+
+        private final Class<?> type;
+        private final Class<?>[] argTypes;
+        private final Class<?>[] parameterTypes;
+        private final boolean needsCoercion;
+        private final MethodHandle handle;
+
+        private CallSite(Class<?> type, Class<?>[] argTypes, Class<?>[] parameterTypes, MethodHandle handle) {
+            this.type = type;
+            this.argTypes = argTypes;
+            this.parameterTypes = parameterTypes;
+            this.handle = handle;
+            boolean coerce = false;
+            if (parameterTypes != null) {
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    if (parameterTypes[i].isPrimitive() && argTypes[i] != Hurricane.getPrimitiveWrapper(parameterTypes[i])) coerce = true;
+                }
+            }
+            this.needsCoercion = coerce;
+        }
+
+        private static Class<?>[] classesOf(Object[] args) {
+            Class<?>[] classes = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                classes[i] = args[i] == null ? null : args[i].getClass();
+            }
+            return classes;
+        }
+
+        private boolean matches(Class<?> type, Object[] args) {
+            if (this.type != type) return false;
+            for (int i = 0; i < args.length; i++) {
+                if ((args[i] == null ? null : args[i].getClass()) != argTypes[i]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Converts boxed primitives to the exact wrapper of the parameter they widen to, since method handles only unbox exact wrappers.
+         */
+        private Object[] coerce(Object[] args) {
+            if (needsCoercion) {
+                for (int i = 0; i < args.length; i++) {
+                    if (parameterTypes[i].isPrimitive()) {
+                        args[i] = Members.widen(args[i],parameterTypes[i]);
+                    }
+                }
+            }
+            return args;
+        }
+    }
+
+    /**
+     * Looks up members and creates method handles for them, cached per class.
+     */
+    private static class Members {
+
+        private static final ClassValue<Map<String, Object>> CACHE = new ClassValue<Map<String, Object>>() {
+            @Override
+            protected Map<String, Object> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+        private static final Map<Member, MethodHandle> HANDLES = new ConcurrentHashMap<>();
+
+        private static MethodHandle getter(Class<?> cls, String name) throws Exception {
+            Map<String, Object> cache = CACHE.get(cls);
+            MethodHandle handle = (MethodHandle) cache.get(name);
+            if (handle == null && cls.isArray() && name.equals("length")) {
+                handle = MethodHandles.lookup().findStatic(Array.class,"getLength",MethodType.methodType(int.class,Object.class)).asType(GETTER_TYPE);
+                cache.put(name,handle);
+            }
+            if (handle == null) {
+                Field f = findField(cls,name);
+                if (f == null) {
+                    throw new Exception("Unknown field " + name + " in " + cls.getName());
+                }
+                makeAccessible(f);
+                try {
+                    handle = MethodHandles.lookup().unreflectGetter(f);
+                } catch (IllegalAccessException e) {
+                    throw new Exception("Cannot access field " + f,e);
+                }
+                if (Modifier.isStatic(f.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle,0,Object.class);
+                }
+                handle = handle.asType(GETTER_TYPE);
+                cache.put(name,handle);
+            }
+            return handle;
+        }
+
+        private static Field findField(Class<?> cls, String name) {
+            try {
+                return cls.getField(name);
+            } catch (NoSuchFieldException ignored) {
+                for (Class<?> c = cls; c != null; c = c.getSuperclass()) {
+                    try {
+                        return c.getDeclaredField(name);
+                    } catch (NoSuchFieldException ignored2) {
+                        // check the super class
+                    }
+                }
+                return null;
+            }
+        }
+
+        private static Method method(Class<?> cls, String name, Object[] args) throws Exception {
+            Map<String, Object> cache = CACHE.get(cls);
+            String key = name + "(" + args.length;
+            Method[] candidates = (Method[]) cache.get(key);
+            if (candidates == null) {
+                List<Method> found = new ArrayList<>();
+                for (Method m : cls.getMethods()) {
+                    if (m.getName().equals(name) && m.getParameterCount() == args.length) found.add(accessibleVersion(cls,m));
+                }
+                for (Class<?> c = cls; c != null; c = c.getSuperclass()) {
+                    for (Method m : c.getDeclaredMethods()) {
+                        if (!Modifier.isPublic(m.getModifiers()) && m.getName().equals(name) && m.getParameterCount() == args.length) found.add(m);
+                    }
+                }
+                candidates = found.toArray(new Method[0]);
+                cache.put(key,candidates);
+            }
+            Method best = null;
+            for (Method m : candidates) {
+                if (applicable(m.getParameterTypes(),args) && (best == null || moreSpecific(m.getParameterTypes(),best.getParameterTypes()))) {
+                    best = m;
+                }
+            }
+            if (best == null) {
+                throw new Exception("No method " + name + " in " + cls.getName() + " accepts the parameters " + Arrays.toString(args));
+            }
+            return best;
+        }
+
+        private static Constructor<?> constructor(Class<?> cls, Object[] args) throws Exception {
+            Constructor<?> best = null;
+            for (Constructor<?> c : cls.getConstructors()) {
+                if (c.getParameterCount() == args.length && applicable(c.getParameterTypes(),args) && (best == null || moreSpecific(c.getParameterTypes(),best.getParameterTypes()))) {
+                    best = c;
+                }
+            }
+            if (best == null) {
+                throw new Exception("No constructor matched the parameters passed to the new " + cls.getSimpleName() + "() expression");
+            }
+            return best;
+        }
+
+        /**
+         * Finds the same method declared in a public class or interface, since the class of an object may be inaccessible even when the method is public (such as JDK collection implementations).
+         */
+        private static Method accessibleVersion(Class<?> cls, Method m) {
+            if (Modifier.isPublic(m.getDeclaringClass().getModifiers())) return m;
+            Deque<Class<?>> types = new ArrayDeque<>();
+            types.add(cls);
+            while (!types.isEmpty()) {
+                Class<?> c = types.poll();
+                if (Modifier.isPublic(c.getModifiers())) {
+                    try {
+                        Method found = c.getMethod(m.getName(),m.getParameterTypes());
+                        if (Modifier.isPublic(found.getDeclaringClass().getModifiers())) return found;
+                    } catch (NoSuchMethodException ignored) {
+                        // not declared here, check the super types
+                    }
+                }
+                if (c.getSuperclass() != null) types.add(c.getSuperclass());
+                types.addAll(Arrays.asList(c.getInterfaces()));
+            }
+            return m;
+        }
+
+        private static MethodHandle invoker(Method m) throws Exception {
+            MethodHandle handle = HANDLES.get(m);
+            if (handle == null) {
+                makeAccessible(m);
+                try {
+                    handle = MethodHandles.lookup().unreflect(m);
+                } catch (IllegalAccessException e) {
+                    throw new Exception("Cannot access method " + m,e);
+                }
+                if (Modifier.isStatic(m.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle,0,Object.class);
+                }
+                handle = handle.asSpreader(Object[].class,m.getParameterCount()).asType(INVOKER_TYPE);
+                HANDLES.put(m,handle);
+            }
+            return handle;
+        }
+
+        private static MethodHandle constructorInvoker(Constructor<?> c) throws Exception {
+            MethodHandle handle = HANDLES.get(c);
+            if (handle == null) {
+                try {
+                    handle = MethodHandles.lookup().unreflectConstructor(c);
+                } catch (IllegalAccessException e) {
+                    throw new Exception("Cannot access constructor " + c,e);
+                }
+                handle = handle.asSpreader(Object[].class,c.getParameterCount()).asType(CONSTRUCTOR_TYPE);
+                HANDLES.put(c,handle);
+            }
+            return handle;
+        }
+
+        private static void makeAccessible(AccessibleObject member) {
+            try {
+                member.setAccessible(true);
+            } catch (RuntimeException ignored) {
+                // not accessible reflectively, the lookup will fail if it's not public either
+            }
+        }
+
+        private static boolean applicable(Class<?>[] params, Object[] args) {
+            for (int i = 0; i < params.length; i++) {
+                Object arg = args[i];
+                if (arg == null) {
+                    if (params[i].isPrimitive()) return false;
+                } else if (params[i].isPrimitive()) {
+                    if (!widens(arg.getClass(),params[i])) return false;
+                } else if (!params[i].isInstance(arg)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean moreSpecific(Class<?>[] a, Class<?>[] b) {
+            for (int i = 0; i < a.length; i++) {
+                if (a[i].isPrimitive() && b[i].isPrimitive()) {
+                    if (!widens(Hurricane.getPrimitiveWrapper(a[i]),b[i])) return false;
+                } else if (!b[i].isAssignableFrom(a[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks whether a boxed value can be passed to a primitive parameter, by unboxing and a widening primitive conversion.
+         */
+        private static boolean widens(Class<?> from, Class<?> to) {
+            Class<?> wrapper = Hurricane.getPrimitiveWrapper(to);
+            if (from == wrapper) return true;
+            int target = numericRank(wrapper);
+            if (from == Character.class) return target >= 3;
+            int source = numericRank(from);
+            return source > 0 && target > source && wrapper != Character.class;
+        }
+
+        private static int numericRank(Class<?> wrapper) {
+            if (wrapper == Byte.class) return 1;
+            if (wrapper == Short.class) return 2;
+            if (wrapper == Integer.class) return 3;
+            if (wrapper == Long.class) return 4;
+            if (wrapper == Float.class) return 5;
+            if (wrapper == Double.class) return 6;
+            return 0;
+        }
+
+        private static Object widen(Object value, Class<?> to) {
+            if (value instanceof Character) {
+                value = (int) (Character) value;
+            }
+            if (!(value instanceof Number)) return value;
+            Number n = (Number) value;
+            if (to == short.class) return n.shortValue();
+            if (to == int.class) return n.intValue();
+            if (to == long.class) return n.longValue();
+            if (to == float.class) return n.floatValue();
+            if (to == double.class) return n.doubleValue();
+            return value;
+        }
+    }
 }
@@ -1,17 +1,26 @@
 package com.shinybunny.hurricane.util;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * An object that can store custom values by {@link Key} and flags. It is safe to read and modify from multiple threads.
+ */
 public class CustomDataHolder {
 
-    private final Map<Key<?>,Object> customData = new HashMap<>();
-    private final Set<String> flags = new HashSet<>();
+    /**
+     * Stands for a null value, since the map can't contain nulls
+     */
+    private static final Object NULL = new Object();
+
+    private final Map<Key<?>,Object> customData = new ConcurrentHashMap<>();
+    private final Set<String> flags = ConcurrentHashMap.newKeySet();
 
     /**
      * Sets a custom value in this object, with <code>key</code> as the {@link Key} of the <code>value</code>
      */
     public <T> void set(Key<T> key, T value) {
-        this.customData.put(key,value);
+        this.customData.put(key,value == null ? NULL : value);
     }
 
     /**
@@ -45,19 +54,33 @@ public class CustomDataHolder {
      * @return An optional that might contain the value, or the key's default value.
      */
     public <T> Optional<T> get(Key<T> key) {
-        return Optional.ofNullable((T)customData.getOrDefault(key,key.getDefault()));
+        Object value = customData.get(key);
+        return Optional.ofNullable(value == null ? key.getDefault() : unwrap(value));
     }
 
+    /**
+     * Gets the value associated with <code>key</code>, associating <code>def</code> with it if no value is present.
+     * If multiple threads call this at once, they all get the value of the first one.
+     */
     public <T> T getOrUse(Key<T> key, T def) {
-        if (customData.containsKey(key)) return (T) customData.get(key);
-        customData.put(key,def);
-        return def;
+        Object value = customData.get(key);
+        if (value == null) {
+            value = customData.putIfAbsent(key,def == null ? NULL : def);
+            if (value == null) return def;
+        }
+        return unwrap(value);
     }
 
+    /**
+     * Gets the value associated with <code>key</code>, or the default value of the key if no value is present.
+     * Unlike {@link #getOrUse(Key, Object)}, the default value is not associated with the key, so reading never modifies this object.
+     */
     public <T> T getOrDefault(Key<T> key) {
-        if (customData.containsKey(key)) return (T) customData.get(key);
-        T def = key.getDefault();
-        customData.put(key,def);
-        return def;
+        Object value = customData.get(key);
+        return value == null ? key.getDefault() : unwrap(value);
+    }
+
+    private static <T> T unwrap(Object value) {
+        return value == NULL ? null : (T) value;
     }
 }
@@ -0,0 +1,252 @@
+package com.shinybunny.hurricane.util;
+
+import com.shinybunny.hurricane.InputReader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, case-folding radix trie mapping literal strings (command names, aliases, sub-command names) to values.
+ * <p>
+ * Keys are stored folded to lower case, so a single trie serves both case-sensitive and case-insensitive lookups:
+ * the original literal of every key is kept next to its value, and is compared exactly when case matters.
+ * <p>
+ * Multiple values may be mapped to the same literal (e.g. two overloads of the same sub-command), in which case lookups return all of them in insertion order.
+ * <p>
+ * Adding a literal returns a new trie that shares every node off the path of the literal with this one,
+ * so a trie can be read from any number of threads while a new version is built from it.
+ * @param <T> The type of values stored in the trie
+ */
+public final class LiteralTrie<T> {
+
+    private final Node<T> root;
+    private final int size;
+
+    /**
+     * Creates an empty trie.
+     */
+    public LiteralTrie() {
+        this(new Node<>(""),0);
+    }
+
+    private LiteralTrie(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Creates a trie with the literal mapped to the value, in addition to all the mappings of this trie. Existing values of the same literal are kept.
+     * @param literal The literal string, such as a command name or alias
+     * @param value The value to map to the literal
+     * @return The new trie, or this trie if the literal is empty
+     */
+    public LiteralTrie<T> with(String literal, T value) {
+        if (literal.isEmpty()) return this;
+        return new LiteralTrie<>(insert(root,fold(literal),0,literal,value),size + 1);
+    }
+
+    /**
+     * Copies the path to the node of the key, with the value added to that node.
+     * @param node The node, which matched the key up to <code>i</code>
+     */
+    private static <T> Node<T> insert(Node<T> node, String key, int i, String literal, T value) {
+        if (i == key.length()) {
+            return node.withEntry(literal,value);
+        }
+        Node<T> child = node.child(key.charAt(i));
+        if (child == null) {
+            return node.withChild(new Node<T>(key.substring(i)).withEntry(literal,value));
+        }
+        int common = commonPrefix(child.label,key,i);
+        if (common < child.label.length()) {
+            // split the child's label, inserting a new intermediate node in its place
+            Node<T> middle = new Node<T>(child.label.substring(0,common)).withChild(child.withLabel(child.label.substring(common)));
+            return node.withChild(insert(middle,key,i + common,literal,value));
+        }
+        return node.withChild(insert(child,key,i + common,literal,value));
+    }
+
+    /**
+     * Gets all values mapped to the exact literal.
+     * @param literal The literal to look up
+     * @param ignoreCase Whether to ignore the capitalization of the literal
+     * @return The matching values in insertion order, or an empty list
+     */
+    public List<T> get(String literal, boolean ignoreCase) {
+        String key = fold(literal);
+        Node<T> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) return Collections.emptyList();
+            i += node.label.length();
+        }
+        return node.values(literal, 0, ignoreCase);
+    }
+
+    /**
+     * Reads the longest literal in the trie starting at the reader's position, which is followed by a space or by the end of the input.
+     * <p>
+     * If a literal is found, the reader is moved to its end. Otherwise, the reader is left untouched.
+     * This makes sure a shorter literal (<code>set</code>) never steals the beginning of a longer word (<code>settings</code>).
+     * @param reader The input reader
+     * @param ignoreCase Whether to ignore the capitalization of the input
+     * @return The values of the longest matching literal, or an empty list if none matched
+     */
+    public List<T> read(InputReader reader, boolean ignoreCase) {
+        String input = reader.getString();
+        int start = reader.getPos();
+        int len = input.length();
+        Node<T> node = root;
+        int i = start;
+        List<T> best = Collections.emptyList();
+        int bestEnd = start;
+        while (true) {
+            if (node.literals != null && (i == len || input.charAt(i) == ' ')) {
+                List<T> values = node.values(input, start, ignoreCase);
+                if (!values.isEmpty()) {
+                    best = values;
+                    bestEnd = i;
+                }
+            }
+            if (i == len) break;
+            Node<T> child = node.child(fold(input.charAt(i)));
+            if (child == null || !labelMatches(child.label, input, i)) break;
+            i += child.label.length();
+            node = child;
+        }
+        reader.setPos(bestEnd);
+        return best;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static boolean labelMatches(String label, String input, int from) {
+        if (from + label.length() > input.length()) return false;
+        for (int k = 0; k < label.length(); k++) {
+            if (fold(input.charAt(from + k)) != label.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int k = 0;
+        while (k < max && label.charAt(k) == key.charAt(from + k)) k++;
+        return k;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private static String fold(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (fold(s.charAt(i)) != s.charAt(i)) {
+                char[] chars = s.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = fold(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return s;
+    }
+
+    private static final class Node<T> {
+
+        private static final char[] NO_KEYS = new char[0];
+
+        private final String label;
+        private final char[] keys;
+        private final Node<T>[] children;
+        private final List<String> literals;
+        private final List<T> values;
+
+        private Node(String label) {
+            this(label,NO_KEYS,newArray(0),null,null);
+        }
+
+        private Node(String label, char[] keys, Node<T>[] children, List<String> literals, List<T> values) {
+            this.label = label;
+            this.keys = keys;
+            this.children = children;
+            this.literals = literals;
+            this.values = values;
+        }
+
+        @SuppressWarnings({"unchecked","rawtypes"})
+        private static <T> Node<T>[] newArray(int size) {
+            return (Node<T>[]) new Node[size];
+        }
+
+        private Node<T> child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+
+        private Node<T> withLabel(String label) {
+            return new Node<>(label,keys,children,literals,values);
+        }
+
+        /**
+         * Copies this node with the child added, or replacing the existing child starting with the same character.
+         */
+        private Node<T> withChild(Node<T> child) {
+            char c = child.label.charAt(0);
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                Node<T>[] newChildren = children.clone();
+                newChildren[i] = child;
+                return new Node<>(label,keys,newChildren,literals,values);
+            }
+            i = -(i + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node<T>[] newChildren = newArray(children.length + 1);
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = c;
+            newChildren[i] = child;
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            return new Node<>(label,newKeys,newChildren,literals,values);
+        }
+
+        private Node<T> withEntry(String literal, T value) {
+            List<String> newLiterals = new ArrayList<>(literals == null ? 1 : literals.size() + 1);
+            List<T> newValues = new ArrayList<>(newLiterals.size() + 1);
+            if (literals != null) {
+                newLiterals.addAll(literals);
+                newValues.addAll(values);
+            }
+            newLiterals.add(literal);
+            newValues.add(value);
+            return new Node<>(label,keys,children,Collections.unmodifiableList(newLiterals),Collections.unmodifiableList(newValues));
+        }
+
+        /**
+         * Gets the values of this node, filtered to the literals exactly matching the input when case matters.
+         */
+        private List<T> values(String input, int from, boolean ignoreCase) {
+            if (literals == null) return Collections.emptyList();
+            if (ignoreCase) return values;
+            List<T> matching = null;
+            for (int i = 0; i < literals.size(); i++) {
+                String literal = literals.get(i);
+                if (input.regionMatches(from, literal, 0, literal.length())) {
+                    if (matching == null) matching = new ArrayList<>(1);
+                    matching.add(values.get(i));
+                }
+            }
+            return matching == null ? Collections.emptyList() : matching;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.shinybunny.hurricane.util;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.LogLevel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A message with <code>${expression}</code> placeholders, compiled once and rendered for every execution of a command.
+ * <p>
+ * Each placeholder is an {@link AccessExpression}. The message is split into literal segments and compiled expressions when the template is compiled,
+ * and rendering writes all of them into a single builder in one pass.
+ * <p>
+ * A placeholder preceded by a backslash (<code>\${...}</code>) is not replaced.
+ * A placeholder evaluating to <code>null</code> is rendered as <code>unknown</code>, except for the <code>result</code> of the command which is rendered as <code>null</code>.
+ * <pre>
+ * MessageTemplate template = MessageTemplate.compile("Kicked ${user.getName()} for ${reason}");
+ * String msg = template.render(ctx);
+ * </pre>
+ */
+public class MessageTemplate {
+
+    private final String template;
+    /**
+     * The literal text around the placeholders. There is always one more literal than there are placeholders.
+     */
+    private final String[] literals;
+    private final AccessExpression[] expressions;
+    /**
+     * Whether the placeholder at each index is just <code>result</code>, and renders <code>null</code> as is
+     */
+    private final boolean[] keepsNull;
+    private final int sizeHint;
+
+    private MessageTemplate(String template, String[] literals, AccessExpression[] expressions) {
+        this.template = template;
+        this.literals = literals;
+        this.expressions = expressions;
+        this.keepsNull = new boolean[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            keepsNull[i] = expressions[i].getExpression().trim().equalsIgnoreCase("result");
+        }
+        int size = 0;
+        for (String literal : literals) {
+            size += literal.length();
+        }
+        this.sizeHint = size + expressions.length * 16;
+    }
+
+    /**
+     * Compiles a template, where the name <code>result</code> refers to an argument like any other name.
+     * @param template The message
+     * @throws CommandParsingException If one of the placeholders is a malformed expression
+     */
+    public static MessageTemplate compile(String template) throws CommandParsingException {
+        return compile(template,false);
+    }
+
+    /**
+     * Compiles a template.
+     * @param template The message
+     * @param resultVariable True if the name <code>result</code> refers to the value returned by the command
+     * @throws CommandParsingException If one of the placeholders is a malformed expression
+     */
+    public static MessageTemplate compile(String template, boolean resultVariable) throws CommandParsingException {
+        List<String> literals = new ArrayList<>();
+        List<AccessExpression> expressions = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (true) {
+            int start = template.indexOf("${",i);
+            if (start < 0) break;
+            int end = template.indexOf('}',start + 2);
+            if (end < 0) break;
+            if ((start > 0 && template.charAt(start - 1) == '\\') || end == start + 2) {
+                i = start + 2;
+                continue;
+            }
+            literals.add(template.substring(literalStart,start));
+            expressions.add(AccessExpression.compile(template.substring(start + 2,end),resultVariable));
+            literalStart = i = end + 1;
+        }
+        literals.add(template.substring(literalStart));
+        return new MessageTemplate(template,literals.toArray(new String[0]),expressions.toArray(new AccessExpression[0]));
+    }
+
+    /**
+     * Renders the message with the arguments of the execution context.
+     */
+    public String render(CommandExecutionContext ctx) {
+        return render(ctx,null);
+    }
+
+    /**
+     * Renders the message with the arguments of the execution context and the result of the command.
+     * <p>
+     * If a placeholder fails to evaluate, the error is logged as a {@link LogLevel#WARN warning} and the rest of the message is left unformatted.
+     */
+    public String render(CommandExecutionContext ctx, Object result) {
+        if (expressions.length == 0) return template;
+        StringBuilder b = new StringBuilder(sizeHint);
+        b.append(literals[0]);
+        for (int i = 0; i < expressions.length; i++) {
+            AccessExpression expr = expressions[i];
+            Object value;
+            try {
+                value = expr.evaluate(ctx,result);
+            } catch (Exception e) {
+                ctx.getApi().log(LogLevel.WARN,"failed to evaluate ${" + expr.getExpression() + "} in message '" + template + "': " + e);
+                appendSource(b,i);
+                return b.toString();
+            }
+            if (value == null && !keepsNull[i]) {
+                value = "unknown";
+            }
+            b.append(value).append(literals[i + 1]);
+        }
+        return b.toString();
+    }
+
+    /**
+     * Appends the unformatted source of the message starting from the placeholder at the index.
+     */
+    private void appendSource(StringBuilder b, int from) {
+        for (int i = from; i < expressions.length; i++) {
+            b.append("${").append(expressions[i].getExpression()).append('}').append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Gets the names of all the arguments the placeholders of this template refer to.
+     */
+    public Set<String> getArgumentNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (AccessExpression expr : expressions) {
+            names.addAll(expr.getArgumentNames());
+        }
+        return names;
+    }
+
+    public boolean isEmpty() {
+        return template.isEmpty();
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
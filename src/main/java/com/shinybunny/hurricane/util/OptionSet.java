@@ -0,0 +1,166 @@
+package com.shinybunny.hurricane.util;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An immutable, hash indexed set of allowed argument values, used by {@link com.shinybunny.hurricane.annotations.Options @Options}.
+ * <p>
+ * Options of a number or character type are stored as primitive <code>long</code> keys in an open addressing table,
+ * so checking a value doesn't box or walk the options. Any other options are compared by their string form.
+ * <p>
+ * The string form of every option is computed once for suggestions, and the error message listing all options is built only when first needed.
+ */
+public final class OptionSet {
+
+    private static final OptionSet EMPTY = new OptionSet(new String[0],null,null,false);
+
+    private final String[] suggestions;
+    private final Set<String> strings;
+    private final LongTable numbers;
+    private final boolean floating;
+    private String joined;
+
+    private OptionSet(String[] suggestions, Set<String> strings, LongTable numbers, boolean floating) {
+        this.suggestions = suggestions;
+        this.strings = strings;
+        this.numbers = numbers;
+        this.floating = floating;
+    }
+
+    /**
+     * Indexes the options in an array.
+     * @param array An array of any component type, primitive or not
+     * @param type The type of the argument the options are for
+     */
+    public static OptionSet of(Object array, Class<?> type) {
+        int n = Array.getLength(array);
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = Array.get(array,i);
+        }
+        return of(Arrays.asList(values),type);
+    }
+
+    /**
+     * Indexes the options in a collection.
+     * <p>
+     * If the argument is of a number or character type and all the options are numbers or characters, they are compared by their numeric value.
+     * Otherwise, they are compared by their string form.
+     * @param values The options
+     * @param type The type of the argument the options are for
+     */
+    public static OptionSet of(Collection<?> values, Class<?> type) {
+        if (values.isEmpty()) return EMPTY;
+        String[] suggestions = new String[values.size()];
+        int i = 0;
+        boolean numeric = isNumeric(type);
+        for (Object o : values) {
+            suggestions[i++] = String.valueOf(o);
+            if (!(o instanceof Number) && !(o instanceof Character)) numeric = false;
+        }
+        if (numeric) {
+            boolean floating = type == Double.class || type == Float.class;
+            LongTable table = new LongTable(values.size());
+            for (Object o : values) {
+                table.add(toKey(o,floating));
+            }
+            return new OptionSet(suggestions,null,table,floating);
+        }
+        return new OptionSet(suggestions,new HashSet<>(Arrays.asList(suggestions)),null,false);
+    }
+
+    private static boolean isNumeric(Class<?> type) {
+        return type == Integer.class || type == Long.class || type == Short.class || type == Byte.class
+                || type == Double.class || type == Float.class || type == Character.class;
+    }
+
+    private static long toKey(Object value, boolean floating) {
+        if (value instanceof Character) return (Character) value;
+        Number n = (Number) value;
+        return floating ? Double.doubleToLongBits(n.doubleValue()) : n.longValue();
+    }
+
+    /**
+     * Checks whether the value is one of the options.
+     */
+    public boolean contains(Object value) {
+        if (value == null) return false;
+        if (numbers != null) {
+            if (!(value instanceof Number) && !(value instanceof Character)) return false;
+            return numbers.contains(toKey(value,floating));
+        }
+        return strings != null && strings.contains(value.toString());
+    }
+
+    public boolean isEmpty() {
+        return suggestions.length == 0;
+    }
+
+    public int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * The string form of every option, in their original order. The array is shared and should not be modified.
+     */
+    public String[] getSuggestions() {
+        return suggestions;
+    }
+
+    /**
+     * All the options separated by commas, for error messages.
+     */
+    @Override
+    public String toString() {
+        String s = joined;
+        if (s == null) {
+            joined = s = String.join(", ",suggestions);
+        }
+        return s;
+    }
+
+    /**
+     * A set of <code>long</code> keys with linear probing.
+     */
+    private static class LongTable {
+
+        private final long[] keys;
+        private final boolean[] used;
+        private final int mask;
+
+        LongTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected * 2 - 1,1)) << 1;
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        void add(long key) {
+            int i = slot(key);
+            while (used[i]) {
+                if (keys[i] == key) return;
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            keys[i] = key;
+        }
+
+        boolean contains(long key) {
+            int i = slot(key);
+            while (used[i]) {
+                if (keys[i] == key) return true;
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+    }
+}
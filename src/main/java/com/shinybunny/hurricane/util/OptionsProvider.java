@@ -0,0 +1,43 @@
+package com.shinybunny.hurricane.util;
+
+import com.shinybunny.hurricane.Hurricane;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A source of allowed argument values for {@link com.shinybunny.hurricane.annotations.Options#from() @Options(from=...)}, for options that aren't known at compile time.
+ * <p>
+ * The options are requested once, and indexed into an {@link OptionSet} for every argument type they are used with.
+ * Call {@link #refresh()} when the options change, to request them again the next time they are used.
+ * A single instance of every provider class is shared by all the commands of a {@link Hurricane} instance,
+ * and can be obtained with {@link Hurricane#getOptionsProvider(Class)}.
+ * <p>
+ * Implementations must have a constructor taking 0 parameters.
+ */
+public abstract class OptionsProvider {
+
+    private volatile Map<Class<?>, OptionSet> indexed = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the current options.
+     * @return The allowed values. Numbers and characters are compared by value with number and character arguments,
+     *          anything else is compared by its string form.
+     */
+    protected abstract Collection<?> getOptions();
+
+    /**
+     * Gets the options indexed for an argument type, indexing them if needed.
+     */
+    public OptionSet getOptionSet(Class<?> type) {
+        return indexed.computeIfAbsent(type,t->OptionSet.of(getOptions(),t));
+    }
+
+    /**
+     * Discards the indexed options, so they are requested again the next time they are used.
+     */
+    public void refresh() {
+        indexed = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,103 @@
+package com.shinybunny.hurricane.util;
+
+import com.shinybunny.hurricane.Priority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Orders adapters by the {@link Priority} they declare on each other.
+ * <p>
+ * Every pair of items is asked for its priority both ways, and the answers become ordering constraints:
+ * <code>BEFORE</code> places the asking item before the other, <code>AFTER</code> places it after,
+ * and <code>DEFAULT</code> and <code>RANDOM</code> add no constraint.
+ * The items are then sorted topologically, keeping their original order wherever no constraint applies, so the same input always gives the same order.
+ * Contradicting constraints are broken in favor of the item that came first.
+ */
+public class PrioritySorter {
+
+    /**
+     * Sorts the items by their priorities.
+     * @param items The items, in registration order
+     * @param priorityOn A function getting the priority of the first item on the second
+     * @param overshadowRemoves True to remove items overshadowed by another item, false to only place the overshadowing item before them
+     * @return A new sorted list
+     */
+    public static <T> List<T> sort(List<T> items, BiFunction<T,T,Priority> priorityOn, boolean overshadowRemoves) {
+        int n = items.size();
+        if (n < 2) return new ArrayList<>(items);
+        boolean[] removed = new boolean[n];
+        boolean[][] before = new boolean[n][n];
+        int[] inDegree = new int[n];
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n && !removed[i]; j++) {
+                if (removed[j]) continue;
+                T a = items.get(i);
+                T b = items.get(j);
+                switch (priorityOn.apply(a,b)) {
+                    case OVERSHADOW:
+                        if (overshadowRemoves) {
+                            removed[j] = true;
+                            continue;
+                        }
+                        // otherwise, the same as BEFORE
+                    case BEFORE:
+                        before[i][j] = true;
+                        break;
+                    case AFTER:
+                        before[j][i] = true;
+                        break;
+                }
+                switch (priorityOn.apply(b,a)) {
+                    case OVERSHADOW:
+                        if (overshadowRemoves) {
+                            removed[i] = true;
+                            continue;
+                        }
+                        // otherwise, the same as BEFORE
+                    case BEFORE:
+                        before[j][i] = true;
+                        break;
+                    case AFTER:
+                        before[i][j] = true;
+                        break;
+                }
+            }
+        }
+        int remaining = 0;
+        for (int i = 0; i < n; i++) {
+            if (removed[i]) continue;
+            remaining++;
+            for (int j = 0; j < n; j++) {
+                if (!removed[j] && before[j][i] && !before[i][j]) inDegree[i]++;
+            }
+        }
+        List<T> sorted = new ArrayList<>(remaining);
+        boolean[] done = new boolean[n];
+        while (sorted.size() < remaining) {
+            int next = -1;
+            for (int i = 0; i < n; i++) {
+                if (!removed[i] && !done[i] && inDegree[i] == 0) {
+                    next = i;
+                    break;
+                }
+            }
+            if (next == -1) {
+                // a cycle of constraints, take the first item out of it
+                for (int i = 0; i < n; i++) {
+                    if (!removed[i] && !done[i]) {
+                        next = i;
+                        break;
+                    }
+                }
+            }
+            done[next] = true;
+            sorted.add(items.get(next));
+            for (int j = 0; j < n; j++) {
+                if (!removed[j] && !done[j] && before[next][j] && !before[j][next]) inDegree[j]--;
+            }
+        }
+        return sorted;
+    }
+}
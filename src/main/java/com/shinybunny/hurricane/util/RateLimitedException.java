@@ -0,0 +1,26 @@
+package com.shinybunny.hurricane.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thrown when a sender uses a command with a {@link com.shinybunny.hurricane.annotations.RateLimit rate limit} or
+ * {@link com.shinybunny.hurricane.annotations.Cooldown cooldown} too often. The input is rejected once it was parsed, before the command runs.
+ */
+public class RateLimitedException extends CommandParsingException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterNanos;
+
+    public RateLimitedException(String message, long retryAfterNanos) {
+        super(message);
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    /**
+     * Gets how long the sender needs to wait before the command is accepted again.
+     */
+    public long getRetryAfter(TimeUnit unit) {
+        return unit.convert(retryAfterNanos,TimeUnit.NANOSECONDS);
+    }
+}
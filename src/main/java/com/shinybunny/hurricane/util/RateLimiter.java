@@ -0,0 +1,113 @@
+package com.shinybunny.hurricane.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free rate limiter with a separate token bucket for every key, such as every sender of a command.
+ * <p>
+ * Buckets use the generic cell rate algorithm: each bucket is a single {@link AtomicLong} holding the time its next permit is due,
+ * so acquiring a permit is one compare-and-set with no lock and no timer. A bucket whose due time has passed is full,
+ * which is the same as having no bucket at all, so buckets are dropped once they expire.
+ * Expired buckets are removed every {@value #SWEEP_INTERVAL} new buckets, and whenever there are more than {@link #getMaxKeys() max keys} buckets.
+ * If there are still too many after that, some of them are dropped (resetting the limit of those keys) to keep the memory bounded.
+ */
+public class RateLimiter {
+
+    /**
+     * The number of buckets created between sweeps of the expired ones
+     */
+    public static final int SWEEP_INTERVAL = 1024;
+
+    private final long interval;
+    private final long tolerance;
+    private final int maxKeys;
+    private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicInteger inserts = new AtomicInteger();
+
+    /**
+     * @param permits The number of permits a key gets in every period. A key can use all of them at once.
+     * @param period The length of the period
+     * @param unit The unit of the period
+     * @param maxKeys The maximum number of keys to keep buckets for
+     */
+    public RateLimiter(int permits, long period, TimeUnit unit, int maxKeys) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("Permits must be positive: " + permits);
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("Max keys must be positive: " + maxKeys);
+        }
+        this.interval = Math.max(unit.toNanos(period) / permits,1);
+        this.tolerance = interval * (permits - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes a permit of a key if one is available.
+     * @param key The key, compared with {@link Object#equals(Object)}
+     * @return 0 if a permit was taken, or the number of nanoseconds until the next permit is available
+     */
+    public long tryAcquire(Object key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now + interval);
+            bucket = buckets.putIfAbsent(key,created);
+            if (bucket == null) {
+                if (buckets.size() > maxKeys || inserts.incrementAndGet() % SWEEP_INTERVAL == 0) {
+                    sweep(now);
+                }
+                return 0;
+            }
+        }
+        while (true) {
+            long due = bucket.get();
+            long wait = due - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(due,Math.max(due,now) + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes the buckets that are full again, and if there are still too many, drops others until only 3/4 of the max keys are left.
+     * Only one thread sweeps at a time, and other threads don't wait for it.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false,true)) return;
+        try {
+            buckets.values().removeIf(bucket->bucket.get() - now <= 0);
+            int excess = buckets.size() - maxKeys / 4 * 3;
+            for (Iterator<AtomicLong> it = buckets.values().iterator(); excess > 0 && it.hasNext(); excess--) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * The number of keys that currently have a bucket
+     */
+    public int getKeys() {
+        return buckets.size();
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+}
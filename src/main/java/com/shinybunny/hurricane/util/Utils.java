@@ -2,17 +2,32 @@ package com.shinybunny.hurricane.util;
 
 import com.shinybunny.hurricane.CommandExecutionContext;
 import com.shinybunny.hurricane.annotations.Command;
-import com.shinybunny.hurricane.tree.ParsedArgument;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 public class Utils {
 
+    private static final ClassValue<Method[]> ANNOTATION_MEMBERS = new ClassValue<Method[]>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            List<Method> members = new ArrayList<>();
+            for (Method m : type.getDeclaredMethods()) {
+                if (m.getParameterCount() == 0 && !Modifier.isStatic(m.getModifiers()) && !m.isSynthetic()) {
+                    m.setAccessible(true);
+                    members.add(m);
+                }
+            }
+            return members.toArray(new Method[0]);
+        }
+    };
+
 
     public static String formatDouble(double d) {
         if (d % 1.0 != 0) return String.format("%s",d);
@@ -27,37 +42,39 @@ public class Utils {
         return m.getName();
     }
 
-    public static Object getArgumentValueMember(String expr, CommandExecutionContext ctx) throws Exception {
-        Object value = null;
-        boolean first = true;
-        String str = expr;
-        while (!str.isEmpty() && (first || value != null)) {
-            int dot = str.indexOf('.');
-            String node = str.substring(0,dot < 0 ? str.length() : dot);
-            if (first) {
-                Optional<ParsedArgument> entry = ctx.getArg(node);
-                if (entry.isPresent()) {
-                    value = entry.get().getValue();
-                } else {
-                    throw new Exception("Unknown argument named " + node);
-                }
-            } else {
-                if (node.endsWith("()")) {
-                    Method m = value.getClass().getMethod(node.substring(0,node.length()-2));
-                    m.setAccessible(true);
-                    if (m.getReturnType() != Void.TYPE && m.getParameterCount() == 0) {
-                        value = m.invoke(value);
-                    }
-                } else {
-                    Field f = value.getClass().getField(node);
-                    f.setAccessible(true);
-                    value = f.get(value);
-                }
-            }
-            if (dot < 0) break;
-            str = str.substring(dot+1);
-            first = false;
+    /**
+     * Finds an annotation of the given type in an array of annotations.
+     * @return The annotation, or <code>null</code> if the array has no annotation of that type
+     */
+    public static <A extends Annotation> A findAnnotation(Annotation[] annotations, Class<A> type) {
+        for (Annotation a : annotations) {
+            if (a.annotationType() == type) return type.cast(a);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a class overrides a method declared in one of its super types.
+     * @param type The class to check
+     * @param declaringType The type declaring the method
+     * @param name The method name
+     * @param parameterTypes The parameter types of the method, as declared in <code>declaringType</code>
+     * @return True if the public method of <code>type</code> is declared by a type other than <code>declaringType</code>
+     */
+    public static boolean overrides(Class<?> type, Class<?> declaringType, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name,parameterTypes).getDeclaringClass() != declaringType;
+        } catch (NoSuchMethodException e) {
+            return false;
         }
+    }
+
+    /**
+     * Evaluates an {@link AccessExpression} once. Expressions evaluated repeatedly should be {@link AccessExpression#compile(String) compiled} once instead.
+     * @return The value of the expression, or <code>"unknown"</code> if it's <code>null</code>
+     */
+    public static Object getArgumentValueMember(String expr, CommandExecutionContext ctx) throws Exception {
+        Object value = AccessExpression.compile(expr).evaluate(ctx);
         if (value == null) {
             return "unknown";
         }
@@ -73,4 +90,73 @@ public class Utils {
         }
         return strs.toArray(new String[0]);
     }
+
+    /**
+     * Compares an annotation to an object as specified by {@link Annotation#equals(Object)}.
+     * Used by annotation instances that are created in code rather than read by reflection, such as the ones in generated {@link com.shinybunny.hurricane.CommandRegistry command registries}.
+     */
+    public static boolean annotationEquals(Annotation a, Object o) {
+        if (a == o) return true;
+        Class<? extends Annotation> type = a.annotationType();
+        if (!type.isInstance(o)) return false;
+        for (Method m : ANNOTATION_MEMBERS.get(type)) {
+            if (!Arrays.deepEquals(new Object[]{getMember(m,a)},new Object[]{getMember(m,o)})) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the hash code of an annotation as specified by {@link Annotation#hashCode()}.
+     */
+    public static int annotationHashCode(Annotation a) {
+        int hash = 0;
+        for (Method m : ANNOTATION_MEMBERS.get(a.annotationType())) {
+            // deepHashCode of a single element array is 31 + the hash code of the element
+            hash += (127 * m.getName().hashCode()) ^ (Arrays.deepHashCode(new Object[]{getMember(m,a)}) - 31);
+        }
+        return hash;
+    }
+
+    /**
+     * Formats an annotation the way it's declared in source, such as <code>@com.example.Range(min=1, max=10)</code>.
+     */
+    public static String annotationToString(Annotation a) {
+        StringBuilder sb = new StringBuilder("@").append(a.annotationType().getName()).append('(');
+        Method[] members = ANNOTATION_MEMBERS.get(a.annotationType());
+        for (int i = 0; i < members.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(members[i].getName()).append('=');
+            appendMember(sb,getMember(members[i],a));
+        }
+        return sb.append(')').toString();
+    }
+
+    private static Object getMember(Method m, Object annotation) {
+        try {
+            return m.invoke(annotation);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to get " + m.getName() + " of " + annotation.getClass().getName(),e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void appendMember(StringBuilder sb, Object value) {
+        if (value.getClass().isArray()) {
+            sb.append('{');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) sb.append(", ");
+                appendMember(sb,Array.get(value,i));
+            }
+            sb.append('}');
+        } else if (value instanceof String) {
+            sb.append('"').append(value).append('"');
+        } else if (value instanceof Character) {
+            sb.append('\'').append(value).append('\'');
+        } else if (value instanceof Class) {
+            sb.append(((Class<?>) value).getName()).append(".class");
+        } else {
+            sb.append(value);
+        }
+    }
 }
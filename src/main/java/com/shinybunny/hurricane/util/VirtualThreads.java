@@ -0,0 +1,36 @@
+package com.shinybunny.hurricane.util;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates executors that run every task on a new virtual thread.
+ * <p>
+ * Virtual threads need Java 21. When Hurricane is built with JDK 21 or newer, the jar is a multi-release jar
+ * with another version of this class that supports them; on older versions of Java {@link #isSupported()} is false.
+ * <pre>
+ * if (VirtualThreads.isSupported()) {
+ *     api.setAsyncExecutor(VirtualThreads.newExecutor());
+ * }
+ * </pre>
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+
+    }
+
+    /**
+     * Checks whether this Java version supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task.
+     * @throws UnsupportedOperationException If virtual threads are not {@link #isSupported() supported}
+     */
+    public static ExecutorService newExecutor() {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+    }
+}
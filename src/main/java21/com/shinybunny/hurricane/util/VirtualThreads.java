@@ -0,0 +1,30 @@
+package com.shinybunny.hurricane.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors that run every task on a new virtual thread.
+ * <p>
+ * This is the Java 21 version of this class, packed into the multi-release jar.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+
+    }
+
+    /**
+     * Checks whether this Java version supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task.
+     */
+    public static ExecutorService newExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hurricane-command-",0).factory());
+    }
+}
@@ -0,0 +1,132 @@
+package com.shinybunny.hurricane;
+
+import com.shinybunny.hurricane.annotations.Command;
+import com.shinybunny.hurricane.annotations.Timeout;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the timeouts and cancellation of commands executed with {@link Hurricane#executeAsync(CommandExecutionContext)}.
+ */
+public class AsyncExecutionTest {
+
+    private Hurricane api;
+    private ExecutorService pool;
+    private User sender;
+
+    @Before
+    public void setUp() {
+        api = new Hurricane();
+        api.setLogger(msg->{});
+        pool = Executors.newCachedThreadPool(r->{
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+        api.setAsyncExecutor(pool);
+        api.register(Commands.class);
+        sender = new User("admin");
+        Commands.RELEASE = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        Commands.RELEASE.countDown();
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void completesWithTheResult() throws Exception {
+        CommandResult<?> result = api.executeAsync(sender,"quick").get(5,TimeUnit.SECONDS);
+        assertTrue(result.isSuccessful());
+        assertEquals("done",result.getMessage());
+    }
+
+    @Test
+    public void timesOutAndCancels() throws Exception {
+        api.setExecutionTimeout(20,TimeUnit.MILLISECONDS);
+        CommandExecutionContext ctx = api.parse(sender,"block");
+        CommandResult<?> result = api.executeAsync(ctx).get(5,TimeUnit.SECONDS);
+        assertTrue(result.isTimedOut());
+        assertFalse(result.isSuccessful());
+        // the timer cancels the context right after completing the future
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!ctx.isCancelled() && System.nanoTime() < end) {
+            Thread.sleep(1);
+        }
+        assertTrue(ctx.isCancelled());
+    }
+
+    @Test
+    public void commandTimeoutOverridesTheApi() throws Exception {
+        CommandResult<?> result = api.executeAsync(sender,"limited").get(5,TimeUnit.SECONDS);
+        assertTrue(result.isTimedOut());
+
+        // a timeout of 0 means the command has none, even when the api has one
+        api.setExecutionTimeout(1,TimeUnit.MILLISECONDS);
+        result = api.executeAsync(sender,"patient").get(5,TimeUnit.SECONDS);
+        assertFalse(result.isTimedOut());
+        assertEquals("done",result.getMessage());
+    }
+
+    @Test
+    public void cancellingTheFutureCancelsTheContext() throws Exception {
+        CommandExecutionContext ctx = api.parse(sender,"block");
+        CompletableFuture<CommandResult<?>> future = api.executeAsync(ctx);
+        assertTrue(future.cancel(true));
+        assertTrue(ctx.isCancelled());
+    }
+
+    @Test
+    public void rejectedCommandCompletesExceptionally() {
+        api.setAsyncExecutor(task->{
+            throw new RejectedExecutionException("rejected");
+        });
+        CompletableFuture<CommandResult<?>> future = api.executeAsync(sender,"quick");
+        ExecutionException e = assertThrows(ExecutionException.class,future::get);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+
+    public static class Commands {
+
+        static volatile CountDownLatch RELEASE;
+
+        @Command
+        public static String quick() {
+            return "done";
+        }
+
+        /**
+         * Runs until the test is over, ignoring its cancellation so that it always outlives its timeout
+         */
+        @Command
+        public static String block() throws InterruptedException {
+            RELEASE.await(5,TimeUnit.SECONDS);
+            return "released";
+        }
+
+        @Command
+        @Timeout(20)
+        public static String limited() throws InterruptedException {
+            return block();
+        }
+
+        @Command
+        @Timeout(0)
+        public static String patient() throws InterruptedException {
+            Thread.sleep(50);
+            return "done";
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.shinybunny.hurricane;
+
+import com.shinybunny.hurricane.tree.Argument;
+import com.shinybunny.hurricane.tree.ArgumentPlan;
+import com.shinybunny.hurricane.tree.CustomCommand;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.InvalidNumberException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the {@link ExampleCommands} through the whole parse and execute path, to keep their behavior the same as the parse loop changes.
+ */
+public class ExampleCommandsTest {
+
+    private Hurricane api;
+    private RecordingUser sender;
+
+    @Before
+    public void setUp() {
+        api = new Hurricane();
+        api.setLogger(msg->{});
+        api.register(ExampleCommands.class);
+        sender = new RecordingUser("admin");
+    }
+
+    @Test
+    public void kickWithReason() throws Exception {
+        CommandResult<?> result = api.execute(sender,"kick bob being rude");
+        assertTrue(result.isSuccessful());
+        assertEquals("Kicked user bob from the server for being rude!",sender.last());
+    }
+
+    @Test
+    public void kickUsesDefaultReason() throws Exception {
+        CommandResult<?> result = api.execute(sender,"kick bob");
+        assertTrue(result.isSuccessful());
+        assertEquals("Kicked user bob from the server for no apparent reason!",sender.last());
+    }
+
+    @Test
+    public void diceUsesDefaults() throws Exception {
+        CommandExecutionContext ctx = api.parse(sender,"dice");
+        assertEquals(1,ctx.getArgumentValue("min"));
+        assertEquals(6,ctx.getArgumentValue("max"));
+        CommandResult<?> result = api.execute(ctx);
+        assertTrue(result.isSuccessful());
+        int rolled = (Integer) result.getResult();
+        assertTrue(rolled >= 1 && rolled < 6);
+    }
+
+    @Test
+    public void diceParsesArguments() throws Exception {
+        CommandExecutionContext ctx = api.parse(sender,"dice 2 9");
+        assertEquals(2,ctx.getArgumentValue("min"));
+        assertEquals(9,ctx.getArgumentValue("max"));
+        assertTrue(api.execute(ctx).isSuccessful());
+    }
+
+    @Test
+    public void diceValidatesRange() {
+        CommandParsingException e = assertThrows(CommandParsingException.class,()->api.parse(sender,"dice 0"));
+        assertEquals("min must be greater than 1",e.getMessage());
+    }
+
+    @Test
+    public void diceRejectsInvalidNumbers() {
+        InvalidNumberException e = assertThrows(InvalidNumberException.class,()->api.parse(sender,"dice x"));
+        assertEquals("Expected a number",e.getMessage());
+        assertEquals("dice [*]x",e.getMarker().toString());
+        e = assertThrows(InvalidNumberException.class,()->api.parse(sender,"dice 3.5"));
+        assertEquals("Invalid number 3.5",e.getMessage());
+        assertThrows(InvalidNumberException.class,()->api.parse(sender,"dice 99999999999"));
+    }
+
+    @Test
+    public void timeSetOverloads() throws Exception {
+        assertTrue(api.execute(sender,"time set 100").isSuccessful());
+        assertEquals("Set the time to 100",sender.last());
+        assertTrue(api.execute(sender,"time set day").isSuccessful());
+        assertEquals("Set the time to DAY",sender.last());
+        assertTrue(api.execute(sender,"TIME SET NOON").isSuccessful());
+        assertEquals("Set the time to NOON",sender.last());
+    }
+
+    @Test
+    public void rootCommandsIgnoreCase() throws Exception {
+        assertSame(api.getCommand("time"),api.getCommand("TIME"));
+        api.setLiteralsIgnoreCase(false);
+        assertSame(api.getCommand("time"),api.getCommand("TIME"));
+        assertTrue(api.execute(sender,"TIME set 100").isSuccessful());
+        assertThrows(CommandParsingException.class,()->api.parse(sender,"time SET 100"));
+    }
+
+    @Test
+    public void timeSetReportsFirstOverloadError() {
+        InvalidNumberException e = assertThrows(InvalidNumberException.class,()->api.parse(sender,"time set abc"));
+        assertEquals("time set [*]abc",e.getMarker().toString());
+    }
+
+    @Test
+    public void unknownCommand() {
+        CommandParsingException e = assertThrows(CommandParsingException.class,()->api.parse(sender,"nope"));
+        assertEquals("Unknown command /nope",e.getMessage());
+    }
+
+    @Test
+    public void planMatchesArgumentParsing() throws Exception {
+        CustomCommand dice = api.getCommand("dice");
+        ArgumentPlan plan = dice.getArgumentPlan();
+        assertEquals(2,plan.size());
+        assertEquals(0,plan.slotOf("min"));
+        assertEquals(1,plan.slotOf("max"));
+        assertEquals(-1,plan.slotOf("sides"));
+        for (String args : new String[]{"","4","2 9"}) {
+            CommandExecutionContext planned = new CommandExecutionContext(api,sender,new InputReader(args));
+            plan.parse(planned.getReader(),planned);
+            CommandExecutionContext single = new CommandExecutionContext(api,sender,new InputReader(args));
+            for (Argument a : dice.getArguments()) {
+                a.parse(single.getReader(),single);
+                if (single.getReader().canRead()) {
+                    single.getReader().skipSpace();
+                }
+            }
+            for (Argument a : dice.getArguments()) {
+                assertEquals(args,single.getArgumentValue(a.getName()),planned.getArgumentValue(a.getName()));
+            }
+        }
+    }
+
+    private static class RecordingUser extends User {
+
+        private final List<String> messages = new ArrayList<>();
+
+        RecordingUser(String name) {
+            super(name);
+        }
+
+        @Override
+        public void sendMessage(String msg) {
+            messages.add(msg);
+        }
+
+        @Override
+        public void success(String msg) {
+            messages.add(msg);
+        }
+
+        @Override
+        public void fail(String msg) {
+            messages.add(msg);
+        }
+
+        String last() {
+            return messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.shinybunny.hurricane;
+
+import com.shinybunny.hurricane.util.InvalidNumberException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the number parsing of {@link InputReader} at the edges of each type.
+ */
+public class InputReaderTest {
+
+    @Test
+    public void integerRange() throws Exception {
+        assertEquals(Integer.MAX_VALUE,new InputReader("2147483647").readInteger());
+        assertEquals(Integer.MIN_VALUE,new InputReader("-2147483648").readInteger());
+        assertEquals(0,new InputReader("-0").readInteger());
+        assertEquals(7,new InputReader("007").readInteger());
+        assertInvalid("2147483648");
+        assertInvalid("-2147483649");
+        assertInvalid("99999999999999999999");
+    }
+
+    @Test
+    public void longRange() throws Exception {
+        assertEquals(Long.MAX_VALUE,new InputReader("9223372036854775807").readLong());
+        assertEquals(Long.MIN_VALUE,new InputReader("-9223372036854775808").readLong());
+        assertThrows(InvalidNumberException.class,()->new InputReader("9223372036854775808").readLong());
+        assertThrows(InvalidNumberException.class,()->new InputReader("-9223372036854775809").readLong());
+    }
+
+    @Test
+    public void shortAndByteRange() throws Exception {
+        assertEquals(Short.MIN_VALUE,new InputReader("-32768").readShort());
+        assertThrows(InvalidNumberException.class,()->new InputReader("32768").readShort());
+        assertEquals(Byte.MAX_VALUE,new InputReader("127").readByte());
+        assertThrows(InvalidNumberException.class,()->new InputReader("-129").readByte());
+    }
+
+    @Test
+    public void invalidIntegers() {
+        assertInvalid("");
+        assertInvalid("-");
+        assertInvalid("abc");
+        assertInvalid("1.5");
+        assertInvalid(".");
+    }
+
+    @Test
+    public void stopsAtTheEndOfTheNumber() throws Exception {
+        InputReader reader = new InputReader("42 rest");
+        assertEquals(42,reader.readInteger());
+        assertEquals(2,reader.getPos());
+        assertEquals(" rest",reader.readRest());
+    }
+
+    @Test
+    public void invalidNumberCoversTheNumber() {
+        InvalidNumberException e = assertThrows(InvalidNumberException.class,()->new InputReader("x 2147483648").readInteger());
+        assertEquals("Expected a number",e.getMessage());
+        InputReader reader = new InputReader("2147483648 x");
+        e = assertThrows(InvalidNumberException.class,reader::readInteger);
+        assertEquals("Invalid number 2147483648",e.getMessage());
+    }
+
+    @Test
+    public void doubles() throws Exception {
+        assertEquals(1.5,new InputReader("1.5").readDouble(),0);
+        assertEquals(-0.25,new InputReader("-.25").readDouble(),0);
+        assertEquals(3.0,new InputReader("3.").readDouble(),0);
+        assertEquals(0.1,new InputReader("0.1").readDouble(),0);
+        // too many digits for the exact path, parsed by the JDK
+        assertEquals(Double.parseDouble("12345678901234567890.5"),new InputReader("12345678901234567890.5").readDouble(),0);
+        assertEquals(Double.parseDouble("0.1234567890123456789012"),new InputReader("0.1234567890123456789012").readDouble(),0);
+        assertEquals(0.1f,new InputReader("0.1").readFloat(),0);
+        assertThrows(InvalidNumberException.class,()->new InputReader("-").readDouble());
+    }
+
+    @Test
+    public void anyNumberIsTheNarrowestType() throws Exception {
+        assertEquals((byte) -128,new InputReader("-128").readAnyNumber());
+        assertEquals((short) 128,new InputReader("128").readAnyNumber());
+        assertEquals(-32769,new InputReader("-32769").readAnyNumber());
+        assertEquals(2147483648L,new InputReader("2147483648").readAnyNumber());
+        assertEquals(Long.MIN_VALUE,new InputReader("-9223372036854775808").readAnyNumber());
+        assertEquals(9223372036854775808.0,new InputReader("9223372036854775808").readAnyNumber());
+        assertEquals(2.5,new InputReader("2.5").readAnyNumber());
+    }
+
+    private static void assertInvalid(String input) {
+        assertThrows(input,InvalidNumberException.class,()->new InputReader(input).readInteger());
+    }
+}
@@ -0,0 +1,96 @@
+package com.shinybunny.hurricane;
+
+import com.shinybunny.hurricane.annotations.Command;
+import com.shinybunny.hurricane.annotations.RateLimit;
+import com.shinybunny.hurricane.metrics.CommandMetrics;
+import com.shinybunny.hurricane.util.CommandParsingException;
+import com.shinybunny.hurricane.util.RateLimitedException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks when commands with a {@link RateLimit} take a permit of their sender.
+ */
+public class RateLimitTest {
+
+    private Hurricane api;
+    private CommandMetrics metrics;
+    private User sender;
+
+    @Before
+    public void setUp() {
+        api = new Hurricane();
+        api.setLogger(msg->{});
+        metrics = new CommandMetrics();
+        api.setMetrics(metrics);
+        api.register(Tools.class);
+        sender = new User("alice");
+    }
+
+    @Test
+    public void limitsUses() throws Exception {
+        assertEquals("1",api.execute(sender,"tools report 1").getMessage());
+        assertEquals("2",api.execute(sender,"tools report 2").getMessage());
+        RateLimitedException e = assertThrows(RateLimitedException.class,()->api.parse(sender,"tools report 3"));
+        assertTrue(e.getRetryAfter(TimeUnit.SECONDS) > 0);
+        // other senders have their own permits
+        assertEquals("3",api.execute(new User("bob"),"tools report 3").getMessage());
+    }
+
+    @Test
+    public void invalidInputTakesNoPermit() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(CommandParsingException.class,()->api.parse(sender,"tools report x"));
+        }
+        api.parse(sender,"tools report 1");
+        api.parse(sender,"tools report 2");
+    }
+
+    @Test
+    public void triedOverloadsTakeNoPermit() throws Exception {
+        // the limited overload also reads the number of these inputs, but only takes a permit when it is chosen
+        for (int i = 0; i < 5; i++) {
+            assertEquals("free",api.execute(sender,"tools ping 1 text").getMessage());
+        }
+        assertEquals("limited",api.execute(sender,"tools ping 1").getMessage());
+        // a limited input doesn't fall through to the free overload
+        assertThrows(RateLimitedException.class,()->api.parse(sender,"tools ping 2"));
+    }
+
+    @Test
+    public void rejectionsAreNotParseErrors() throws Exception {
+        api.parse(sender,"tools ping 1");
+        assertThrows(RateLimitedException.class,()->api.parse(sender,"tools ping 2"));
+        assertThrows(CommandParsingException.class,()->api.parse(sender,"tools report x"));
+        CommandMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1,snapshot.getCommand("tools ping").getRateLimited());
+        assertEquals(0,snapshot.getCommand("tools ping").getParseErrors());
+        assertNull(snapshot.getParseErrors().get(RateLimitedException.class.getSimpleName()));
+        assertEquals(1,snapshot.getParseErrors().size());
+    }
+
+    @Command
+    public static class Tools {
+
+        @Command
+        @RateLimit(value = 2, per = 1, unit = TimeUnit.HOURS)
+        public static String report(int id) {
+            return String.valueOf(id);
+        }
+
+        @Command
+        @RateLimit(value = 1, per = 1, unit = TimeUnit.HOURS)
+        public static String ping(int n) {
+            return "limited";
+        }
+
+        @Command
+        public static String ping(int n, String text) {
+            return "free";
+        }
+    }
+}
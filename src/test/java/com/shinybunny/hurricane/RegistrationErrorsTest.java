@@ -0,0 +1,84 @@
+package com.shinybunny.hurricane;
+
+import com.shinybunny.hurricane.annotations.Command;
+import com.shinybunny.hurricane.annotations.Default;
+import com.shinybunny.hurricane.annotations.Feedback;
+import com.shinybunny.hurricane.util.CommandRegisterFailedException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the errors reported while registering commands whose annotations refer to their arguments.
+ */
+public class RegistrationErrorsTest {
+
+    private Hurricane api;
+
+    @Before
+    public void setUp() {
+        api = new Hurricane();
+        api.setLogger(msg->{});
+    }
+
+    @Test
+    public void knownArgumentNames() throws Exception {
+        assertTrue(register("greet").isEmpty());
+        assertTrue(register("cut").isEmpty());
+    }
+
+    @Test
+    public void unknownFeedbackArgument() throws Exception {
+        List<CommandRegisterFailedException> errors = register("typoFeedback");
+        assertEquals(1,errors.size());
+        assertEquals("Unknown argument nmae in @Feedback message 'Hello ${nmae}'",errors.get(0).getMessage());
+    }
+
+    @Test
+    public void unknownDefaultArgument() throws Exception {
+        List<CommandRegisterFailedException> errors = register("typoDefault");
+        assertEquals(1,errors.size());
+        assertEquals("Unknown argument txt in @Default expression 'txt.length()' on end",errors.get(0).getMessage());
+    }
+
+    private List<CommandRegisterFailedException> register(String name) throws NoSuchMethodException {
+        Method m = null;
+        for (Method method : Commands.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) m = method;
+        }
+        if (m == null) throw new NoSuchMethodException(name);
+        CommandContainer container = new CommandContainer(api,Commands.class);
+        CommandRegisteringContext ctx = new CommandRegisteringContext(api,container,name);
+        api.register(api.createFromMethod(ctx,m,container),ctx);
+        return ctx.getErrors();
+    }
+
+    public static class Commands {
+
+        @Command
+        @Feedback(success = "Hello ${name}, you are ${result}")
+        public static int greet(String name) {
+            return name.length();
+        }
+
+        @Command
+        public static int cut(String text, @Default(computed = "text.length()") int end) {
+            return end;
+        }
+
+        @Command
+        @Feedback(success = "Hello ${nmae}")
+        public static void typoFeedback(String name) {
+
+        }
+
+        @Command
+        public static int typoDefault(String text, @Default(computed = "txt.length()") int end) {
+            return end;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.shinybunny.hurricane.annotations;
+
+import com.shinybunny.hurricane.annotations.Condition.Comparison;
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the compiled comparisons of {@link Condition}.
+ */
+public class ConditionTest {
+
+    @Test
+    public void numberComparisons() {
+        Predicate<Object> test = Comparison.LESS_THAN.compile("10",Integer.class);
+        assertTrue(test.test(9));
+        assertFalse(test.test(10));
+        assertFalse(test.test("9"));
+        assertTrue(Comparison.GREATER_EQUAL.compile("10",Integer.class).test(10));
+        assertTrue(Comparison.LESS_EQUAL.compile("-1",Integer.class).test(-1));
+    }
+
+    @Test
+    public void decimalOperandOfAWholeNumber() {
+        Predicate<Object> test = Comparison.LESS_THAN.compile("2.5",Integer.class);
+        assertTrue(test.test(2));
+        assertFalse(test.test(3));
+    }
+
+    @Test
+    public void longsCompareExactly() {
+        // 2^53 + 1 has no exact double, so comparing doubles would see these as equal
+        assertTrue(Comparison.GREATER_THAN.compile("9007199254740992",Long.class).test(9007199254740993L));
+        assertTrue(Comparison.NOT_EQUAL.compile("9007199254740993",Long.class).test(9007199254740992L));
+        assertFalse(Comparison.NOT_EQUAL.compile("9007199254740993",Long.class).test(9007199254740993L));
+        assertTrue(Comparison.LESS_EQUAL.compile(String.valueOf(Long.MAX_VALUE),Long.class).test(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void doubles() {
+        assertTrue(Comparison.GREATER_THAN.compile("0.5",Double.class).test(0.75));
+        assertFalse(Comparison.NOT_EQUAL.compile("0.5",Double.class).test(0.5));
+    }
+
+    @Test
+    public void strings() {
+        assertTrue(Comparison.NOT_EQUAL.compile("admin",String.class).test("user"));
+        assertFalse(Comparison.NOT_EQUAL.compile("admin",String.class).test("admin"));
+        assertTrue(Comparison.CONTAINS.compile("ab",String.class).test("cabd"));
+        assertTrue(Comparison.CONTAINS_REGEX.compile("[0-9]",String.class).test("a1"));
+        assertFalse(Comparison.MATCHES_REGEX.compile("[a-z_]+",String.class).test("a1"));
+        assertTrue(Comparison.MATCHES_REGEX.compile("[a-z_]+",String.class).test("a_b"));
+    }
+
+    @Test
+    public void invalidOperands() {
+        assertThrows(IllegalArgumentException.class,()->Comparison.LESS_THAN.compile("ten",Integer.class));
+        assertThrows(IllegalArgumentException.class,()->Comparison.MATCHES_REGEX.compile("[a-",String.class));
+    }
+
+    @Test
+    public void errorMessage() {
+        assertEquals("age must be less than 10",Comparison.LESS_THAN.getErrorMessage("age","10"));
+        Exception e = assertThrows(Exception.class,()->Comparison.GREATER_THAN.validate(5,3));
+        assertEquals("Value must be greater than 5",e.getMessage());
+    }
+}
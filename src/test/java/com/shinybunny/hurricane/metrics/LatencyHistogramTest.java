@@ -0,0 +1,72 @@
+package com.shinybunny.hurricane.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the buckets and percentiles of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsContainTheirValues() {
+        for (long v = 0; v < 100_000; v++) {
+            assertBucket(v);
+        }
+        for (int exp = 0; exp < 63; exp++) {
+            long p = 1L << exp;
+            assertBucket(p - 1);
+            assertBucket(p);
+            assertBucket(p + 1);
+        }
+        assertBucket(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        for (int i = 1; i < LatencyHistogram.indexOf(Long.MAX_VALUE); i++) {
+            assertEquals(LatencyHistogram.upperBound(i - 1) + 1,LatencyHistogram.lowerBound(i));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000,snapshot.getCount());
+        assertEquals(1_000_000,snapshot.getMax());
+        assertEquals(500_500_000L,snapshot.getTotal());
+        assertWithin(500_000,snapshot.getPercentile(50));
+        assertWithin(990_000,snapshot.getPercentile(99));
+        assertEquals(1_000_000,snapshot.getPercentile(100));
+        assertWithin(1000,snapshot.getPercentile(0));
+    }
+
+    @Test
+    public void emptyAndNegative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0,histogram.snapshot().getPercentile(50));
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1,snapshot.getCount());
+        assertEquals(0,snapshot.getMax());
+        assertEquals(0,snapshot.getPercentile(99));
+    }
+
+    private static void assertBucket(long value) {
+        int index = LatencyHistogram.indexOf(value);
+        assertTrue(value + " is below its bucket",LatencyHistogram.lowerBound(index) <= value);
+        assertTrue(value + " is above its bucket",LatencyHistogram.upperBound(index) >= value);
+    }
+
+    /**
+     * Checks the percentile is no lower than the value, and off by no more than the 12.5% precision of the buckets.
+     */
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " is not within the bucket of " + expected,actual >= expected && actual <= expected + expected / 8);
+    }
+}
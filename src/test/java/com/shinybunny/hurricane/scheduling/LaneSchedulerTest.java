@@ -0,0 +1,140 @@
+package com.shinybunny.hurricane.scheduling;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.InputReader;
+import com.shinybunny.hurricane.User;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the order, capacity and cancellation of the lanes of a {@link LaneScheduler}.
+ */
+public class LaneSchedulerTest {
+
+    private static final Executor REJECTING = task->{
+        throw new RejectedExecutionException("rejected");
+    };
+
+    private Hurricane api;
+    private List<String> ran;
+    private Map<String, User> users;
+    private List<Runnable> held;
+    private LaneScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        api = new Hurricane();
+        api.setLogger(msg->{});
+        ran = new ArrayList<>();
+        users = new HashMap<>();
+        held = new ArrayList<>();
+        scheduler = new LaneScheduler(2);
+    }
+
+    @Test
+    public void commandsOfALaneRunInOrder() {
+        CompletableFuture<Void> first = schedule("alice","a1");
+        schedule("alice","a2");
+        schedule("alice","a3");
+        assertEquals(1,held.size());
+        first.complete(null);
+        // completing the future lets the next command start, even if its task didn't run yet
+        assertEquals(2,held.size());
+        runAll();
+        assertEquals(Arrays.asList("a1","a2","a3"),ran);
+        assertEquals(0,scheduler.getActiveLanes());
+    }
+
+    @Test
+    public void lanesRunInParallel() {
+        schedule("alice","a1");
+        schedule("alice","a2");
+        schedule("bob","b1");
+        assertEquals(2,held.size());
+        assertEquals(2,scheduler.getActiveLanes());
+        runAll();
+        assertEquals(Arrays.asList("a1","b1","a2"),ran);
+    }
+
+    @Test
+    public void fullLaneRejects() {
+        schedule("alice","a1");
+        schedule("alice","a2");
+        schedule("alice","a3");
+        assertThrows(RejectedExecutionException.class,()->schedule("alice","a4"));
+        schedule("bob","b1");
+        runAll();
+        assertEquals(Arrays.asList("a1","b1","a2","a3"),ran);
+    }
+
+    @Test
+    public void cancelledCommandLeavesTheLane() {
+        schedule("alice","a1");
+        CompletableFuture<Void> cancelled = schedule("alice","a2");
+        schedule("alice","a3");
+        cancelled.cancel(false);
+        // the cancelled command no longer counts against the capacity
+        schedule("alice","a4");
+        runAll();
+        assertEquals(Arrays.asList("a1","a3","a4"),ran);
+    }
+
+    @Test
+    public void rejectedCommandIsNotRunByTheCaller() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        assertThrows(RejectedExecutionException.class,()->scheduler.schedule(context("alice"),REJECTING,task("a1",done),done));
+        assertTrue(ran.isEmpty());
+        schedule("alice","a2");
+        runAll();
+        assertEquals(Arrays.asList("a2"),ran);
+    }
+
+    @Test
+    public void rejectedWaitingCommandCompletesExceptionally() {
+        schedule("alice","a1");
+        CompletableFuture<Void> rejected = new CompletableFuture<>();
+        scheduler.schedule(context("alice"),REJECTING,task("a2",rejected),rejected);
+        schedule("alice","a3");
+        runAll();
+        ExecutionException e = assertThrows(ExecutionException.class,rejected::get);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(Arrays.asList("a1","a3"),ran);
+        assertEquals(0,scheduler.getActiveLanes());
+    }
+
+    private CompletableFuture<Void> schedule(String sender, String name) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        scheduler.schedule(context(sender),held::add,task(name,done),done);
+        return done;
+    }
+
+    private void runAll() {
+        while (!held.isEmpty()) {
+            held.remove(0).run();
+        }
+    }
+
+    private CommandExecutionContext context(String sender) {
+        return new CommandExecutionContext(api,users.computeIfAbsent(sender,User::new),new InputReader(""));
+    }
+
+    private Runnable task(String name, CompletableFuture<Void> done) {
+        return ()->{
+            ran.add(name);
+            done.complete(null);
+        };
+    }
+}
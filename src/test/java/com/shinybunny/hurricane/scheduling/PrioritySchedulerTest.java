@@ -0,0 +1,188 @@
+package com.shinybunny.hurricane.scheduling;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.InputReader;
+import com.shinybunny.hurricane.User;
+import com.shinybunny.hurricane.annotations.Command;
+import com.shinybunny.hurricane.annotations.ExecutionPriority;
+import com.shinybunny.hurricane.annotations.ExecutionPriority.Level;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks how the {@link PriorityScheduler} hands out its running slots.
+ */
+public class PrioritySchedulerTest {
+
+    private static final Executor REJECTING = task->{
+        throw new RejectedExecutionException("rejected");
+    };
+
+    private Hurricane api;
+    private List<String> ran;
+    private Map<String, User> users;
+    private List<Runnable> held;
+
+    @Before
+    public void setUp() {
+        api = new Hurricane();
+        api.setLogger(msg->{});
+        api.register(Commands.class);
+        ran = new ArrayList<>();
+        users = new HashMap<>();
+        held = new ArrayList<>();
+    }
+
+    @Test
+    public void runsUpToTheConcurrency() {
+        PriorityScheduler scheduler = new PriorityScheduler(2,10);
+        CompletableFuture<Void> first = schedule(scheduler,"alice","a1");
+        schedule(scheduler,"alice","a2");
+        schedule(scheduler,"alice","a3");
+        assertEquals(2,held.size());
+        first.complete(null);
+        assertEquals(3,held.size());
+    }
+
+    @Test
+    public void higherLevelsRunFirst() throws Exception {
+        PriorityScheduler scheduler = new PriorityScheduler(1,10);
+        schedule(scheduler,"alice","busy");
+        schedule(scheduler,api.parse(user("alice"),"chat"),"chat");
+        schedule(scheduler,api.parse(user("alice"),"flush"),"flush");
+        schedule(scheduler,api.parse(user("bob"),"kick"),"kick");
+        runAll();
+        assertEquals(Arrays.asList("busy","kick","chat","flush"),ran);
+    }
+
+    @Test
+    public void sendersShareALevelFairly() {
+        PriorityScheduler scheduler = new PriorityScheduler(1,10);
+        schedule(scheduler,"carol","busy");
+        schedule(scheduler,"alice","a1");
+        schedule(scheduler,"alice","a2");
+        schedule(scheduler,"alice","a3");
+        schedule(scheduler,"bob","b1");
+        runAll();
+        assertEquals(Arrays.asList("busy","a1","b1","a2","a3"),ran);
+    }
+
+    @Test
+    public void capacityIsPerSender() {
+        PriorityScheduler scheduler = new PriorityScheduler(1,2);
+        schedule(scheduler,"alice","busy");
+        schedule(scheduler,"alice","a1");
+        schedule(scheduler,"alice","a2");
+        assertThrows(RejectedExecutionException.class,()->schedule(scheduler,"alice","a3"));
+        schedule(scheduler,"bob","b1");
+        runAll();
+        assertEquals(Arrays.asList("busy","a1","b1","a2"),ran);
+    }
+
+    @Test
+    public void cancelledCommandLeavesItsQueue() {
+        PriorityScheduler scheduler = new PriorityScheduler(1,2);
+        schedule(scheduler,"alice","busy");
+        schedule(scheduler,"alice","a1");
+        CompletableFuture<Void> cancelled = schedule(scheduler,"alice","a2");
+        cancelled.cancel(false);
+        // the cancelled command no longer counts against the capacity
+        schedule(scheduler,"alice","a3");
+        runAll();
+        assertEquals(Arrays.asList("busy","a1","a3"),ran);
+    }
+
+    @Test
+    public void rejectedCommandIsNotRunByTheCaller() {
+        PriorityScheduler scheduler = new PriorityScheduler(1,10);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        assertThrows(RejectedExecutionException.class,()->scheduler.schedule(context("alice"),REJECTING,task("first",done),done));
+        assertTrue(ran.isEmpty());
+
+        // the slot of the rejected command is free again
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        scheduler.schedule(context("alice"),Runnable::run,task("second",next),next);
+        assertEquals(Arrays.asList("second"),ran);
+    }
+
+    @Test
+    public void rejectedWaitingCommandCompletesExceptionally() {
+        PriorityScheduler scheduler = new PriorityScheduler(1,10);
+        schedule(scheduler,"alice","first");
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        scheduler.schedule(context("bob"),REJECTING,task("second",second),second);
+        CompletableFuture<Void> third = new CompletableFuture<>();
+        scheduler.schedule(context("carol"),Runnable::run,task("third",third),third);
+        assertEquals(1,held.size());
+
+        runAll();
+        ExecutionException e = assertThrows(ExecutionException.class,second::get);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertTrue(third.isDone());
+        assertEquals(Arrays.asList("first","third"),ran);
+    }
+
+    private CompletableFuture<Void> schedule(PriorityScheduler scheduler, String sender, String name) {
+        return schedule(scheduler,context(sender),name);
+    }
+
+    private CompletableFuture<Void> schedule(PriorityScheduler scheduler, CommandExecutionContext ctx, String name) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        scheduler.schedule(ctx,held::add,task(name,done),done);
+        return done;
+    }
+
+    private void runAll() {
+        while (!held.isEmpty()) {
+            held.remove(0).run();
+        }
+    }
+
+    private User user(String name) {
+        return users.computeIfAbsent(name,User::new);
+    }
+
+    private CommandExecutionContext context(String sender) {
+        return new CommandExecutionContext(api,user(sender),new InputReader(""));
+    }
+
+    private Runnable task(String name, CompletableFuture<Void> done) {
+        return ()->{
+            ran.add(name);
+            done.complete(null);
+        };
+    }
+
+    public static class Commands {
+
+        @Command
+        @ExecutionPriority(Level.HIGH)
+        public static void kick() {
+
+        }
+
+        @Command
+        public static void chat() {
+
+        }
+
+        @Command
+        @ExecutionPriority(Level.LOW)
+        public static void flush() {
+
+        }
+    }
+}
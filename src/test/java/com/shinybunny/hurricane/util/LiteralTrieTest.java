@@ -0,0 +1,89 @@
+package com.shinybunny.hurricane.util;
+
+import com.shinybunny.hurricane.InputReader;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the lookups of {@link LiteralTrie}.
+ */
+public class LiteralTrieTest {
+
+    private final LiteralTrie<String> trie = new LiteralTrie<String>()
+            .with("set","set")
+            .with("settings","settings")
+            .with("se","se")
+            .with("Get","get");
+
+    @Test
+    public void exactLookup() {
+        assertEquals(Collections.singletonList("set"),trie.get("set",false));
+        assertEquals(Collections.singletonList("settings"),trie.get("settings",false));
+        assertTrue(trie.get("sett",false).isEmpty());
+        assertTrue(trie.get("s",false).isEmpty());
+        assertTrue(trie.get("settingsx",false).isEmpty());
+        assertEquals(4,trie.size());
+    }
+
+    @Test
+    public void caseSensitivity() {
+        assertTrue(trie.get("get",false).isEmpty());
+        assertEquals(Collections.singletonList("get"),trie.get("Get",false));
+        assertEquals(Collections.singletonList("get"),trie.get("GET",true));
+        assertEquals(Collections.singletonList("set"),trie.get("SeT",true));
+    }
+
+    @Test
+    public void readsTheLongestWord() {
+        InputReader reader = new InputReader("settings on");
+        assertEquals(Collections.singletonList("settings"),trie.read(reader,false));
+        assertEquals(8,reader.getPos());
+
+        reader = new InputReader("set 5");
+        assertEquals(Collections.singletonList("set"),trie.read(reader,false));
+        assertEquals(3,reader.getPos());
+    }
+
+    @Test
+    public void shorterLiteralDoesNotStealAWord() {
+        InputReader reader = new InputReader("sett 5");
+        assertTrue(trie.read(reader,false).isEmpty());
+        assertEquals(0,reader.getPos());
+
+        reader = new InputReader("setting");
+        assertTrue(trie.read(reader,false).isEmpty());
+        assertEquals(0,reader.getPos());
+    }
+
+    @Test
+    public void readsFromThePosition() {
+        InputReader reader = new InputReader("time GET", 5);
+        assertTrue(trie.read(reader,false).isEmpty());
+        assertEquals(5,reader.getPos());
+        assertEquals(Collections.singletonList("get"),trie.read(reader,true));
+        assertEquals(8,reader.getPos());
+    }
+
+    @Test
+    public void valuesOfTheSameLiteralKeepTheirOrder() {
+        LiteralTrie<String> overloads = trie.with("set","second").with("SET","upper");
+        assertEquals(Arrays.asList("set","second","upper"),overloads.get("set",true));
+        assertEquals(Arrays.asList("set","second"),overloads.get("set",false));
+        List<String> read = overloads.read(new InputReader("SET"),false);
+        assertEquals(Collections.singletonList("upper"),read);
+    }
+
+    @Test
+    public void addingReturnsANewTrie() {
+        LiteralTrie<String> bigger = trie.with("setup","setup");
+        assertTrue(trie.get("setup",false).isEmpty());
+        assertEquals(Collections.singletonList("setup"),bigger.get("setup",false));
+        assertEquals(Collections.singletonList("settings"),bigger.get("settings",false));
+        assertSame(trie,trie.with("","empty"));
+    }
+}
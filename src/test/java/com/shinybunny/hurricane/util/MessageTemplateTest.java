@@ -0,0 +1,78 @@
+package com.shinybunny.hurricane.util;
+
+import com.shinybunny.hurricane.CommandExecutionContext;
+import com.shinybunny.hurricane.Hurricane;
+import com.shinybunny.hurricane.User;
+import com.shinybunny.hurricane.annotations.Command;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks how {@link MessageTemplate}s and {@link AccessExpression}s render the arguments of a parsed command.
+ */
+public class MessageTemplateTest {
+
+    private Hurricane api;
+    private CommandExecutionContext ctx;
+
+    @Before
+    public void setUp() throws Exception {
+        api = new Hurricane();
+        api.setLogger(msg->{});
+        api.register(Commands.class);
+        ctx = api.parse(new User("admin"),"greet bob 3");
+    }
+
+    @Test
+    public void rendersArguments() throws Exception {
+        MessageTemplate template = MessageTemplate.compile("Hello ${name}, ${count} times");
+        assertEquals("Hello bob, 3 times",template.render(ctx));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("name","count")),template.getArgumentNames());
+    }
+
+    @Test
+    public void accessesMembers() throws Exception {
+        assertEquals("BOB has 3",MessageTemplate.compile("${name.toUpperCase()} has ${name.length()}").render(ctx));
+        assertEquals("o",MessageTemplate.compile("${name.substring(1,2)}").render(ctx));
+        assertEquals(Boolean.TRUE,AccessExpression.compile("name.startsWith(\"b\")").evaluate(ctx));
+    }
+
+    @Test
+    public void result() throws Exception {
+        assertEquals("got 5",MessageTemplate.compile("got ${result}",true).render(ctx,5));
+        assertEquals("got null",MessageTemplate.compile("got ${result}",true).render(ctx,null));
+        // without the result variable, result is an argument like any other, and this command has none by that name
+        assertEquals("got ${result}",MessageTemplate.compile("got ${result}").render(ctx,5));
+    }
+
+    @Test
+    public void escapedAndEmptyPlaceholders() throws Exception {
+        assertEquals("\\${name} and ${}",MessageTemplate.compile("\\${name} and ${}").render(ctx));
+        MessageTemplate plain = MessageTemplate.compile("no placeholders");
+        assertEquals("no placeholders",plain.render(ctx));
+        assertTrue(plain.getArgumentNames().isEmpty());
+    }
+
+    @Test
+    public void failedPlaceholderLeavesTheRestUnformatted() throws Exception {
+        assertEquals("bob ${name.noSuchMethod()} and ${count}",MessageTemplate.compile("${name} ${name.noSuchMethod()} and ${count}").render(ctx));
+    }
+
+    @Test
+    public void malformedExpression() {
+        assertThrows(CommandParsingException.class,()->MessageTemplate.compile("${name.}"));
+    }
+
+    public static class Commands {
+
+        @Command
+        public static void greet(String name, int count) {
+
+        }
+    }
+}
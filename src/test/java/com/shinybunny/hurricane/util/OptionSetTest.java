@@ -0,0 +1,68 @@
+package com.shinybunny.hurricane.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks how {@link OptionSet} compares values to its options.
+ */
+public class OptionSetTest {
+
+    @Test
+    public void numbersCompareByValue() {
+        OptionSet set = OptionSet.of(new int[]{1,2,3},Integer.class);
+        assertTrue(set.contains(2));
+        assertTrue(set.contains(2L));
+        assertTrue(set.contains((byte) 3));
+        assertFalse(set.contains(4));
+        assertFalse(set.contains("2"));
+        assertFalse(set.contains(null));
+        assertEquals(3,set.size());
+    }
+
+    @Test
+    public void largeLongs() {
+        OptionSet set = OptionSet.of(Arrays.asList(Long.MAX_VALUE,Long.MIN_VALUE,0L),Long.class);
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.contains(0L));
+        assertFalse(set.contains(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void floatingNumbers() {
+        OptionSet set = OptionSet.of(new double[]{0.5,1.5},Double.class);
+        assertTrue(set.contains(0.5));
+        assertTrue(set.contains(1.5f));
+        assertFalse(set.contains(1.0));
+    }
+
+    @Test
+    public void characters() {
+        OptionSet set = OptionSet.of(new char[]{'a','b'},Character.class);
+        assertTrue(set.contains('a'));
+        assertFalse(set.contains('c'));
+    }
+
+    @Test
+    public void otherTypesCompareByString() {
+        OptionSet set = OptionSet.of(new String[]{"red","green"},String.class);
+        assertTrue(set.contains("red"));
+        assertFalse(set.contains("RED"));
+        // numbers of a string argument are compared as strings
+        set = OptionSet.of(new int[]{1,2},String.class);
+        assertTrue(set.contains("1"));
+        assertArrayEquals(new String[]{"1","2"},set.getSuggestions());
+    }
+
+    @Test
+    public void empty() {
+        OptionSet set = OptionSet.of(Collections.emptyList(),String.class);
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains("anything"));
+    }
+}
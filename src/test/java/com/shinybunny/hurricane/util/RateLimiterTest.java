@@ -0,0 +1,63 @@
+package com.shinybunny.hurricane.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the token buckets of {@link RateLimiter} and how their memory is bounded.
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void burstThenWait() {
+        RateLimiter limiter = new RateLimiter(3,1,TimeUnit.HOURS,100);
+        assertEquals(0,limiter.tryAcquire("alice"));
+        assertEquals(0,limiter.tryAcquire("alice"));
+        assertEquals(0,limiter.tryAcquire("alice"));
+        long wait = limiter.tryAcquire("alice");
+        assertTrue(wait > 0);
+        // the next permit is due after a third of the period
+        assertTrue(wait <= TimeUnit.MINUTES.toNanos(20));
+        assertEquals(0,limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    public void permitsComeBack() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1,20,TimeUnit.MILLISECONDS,100);
+        assertEquals(0,limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        Thread.sleep(40);
+        assertEquals(0,limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    public void keysAreBounded() {
+        RateLimiter limiter = new RateLimiter(1,1,TimeUnit.HOURS,100);
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire(i);
+            assertTrue(limiter.getKeys() <= limiter.getMaxKeys());
+        }
+    }
+
+    @Test
+    public void expiredBucketsAreSwept() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1,1,TimeUnit.MILLISECONDS,1_000_000);
+        for (int i = 1; i < RateLimiter.SWEEP_INTERVAL; i++) {
+            limiter.tryAcquire(i);
+        }
+        assertEquals(RateLimiter.SWEEP_INTERVAL - 1,limiter.getKeys());
+        Thread.sleep(10);
+        limiter.tryAcquire(0);
+        assertEquals(1,limiter.getKeys());
+    }
+
+    @Test
+    public void invalidSettings() {
+        assertThrows(IllegalArgumentException.class,()->new RateLimiter(0,1,TimeUnit.SECONDS,1));
+        assertThrows(IllegalArgumentException.class,()->new RateLimiter(1,0,TimeUnit.SECONDS,1));
+        assertThrows(IllegalArgumentException.class,()->new RateLimiter(1,1,TimeUnit.SECONDS,0));
+    }
+}